@@ -0,0 +1,77 @@
+package com.gntech.challenge.weatherapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.service.WeatherDictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados de entrada compartilhados pelos benchmarks.
+ */
+final class BenchmarkData {
+
+    static final byte[] OPEN_WEATHER_JSON = """
+            {"coord":{"lon":-48.5492,"lat":-27.5967},"weather":[{"id":800,"main":"Clear","description":"céu limpo","icon":"01d"}],
+             "base":"stations","main":{"temp":25.31,"feels_like":25.62,"temp_min":24.9,"temp_max":26.1,"pressure":1014,"humidity":70},
+             "visibility":10000,"wind":{"speed":5.14,"deg":90},"clouds":{"all":0},"dt":1735732800,
+             "sys":{"type":2,"id":2008417,"country":"BR","sunrise":1735718130,"sunset":1735767630},
+             "timezone":-10800,"id":3463237,"name":"Florianópolis","cod":200}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private BenchmarkData() {
+    }
+
+    /** Mesma configuração de datas que o ObjectMapper do Spring Boot. */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /** Dicionário com a cidade e a descrição de {@link #OPEN_WEATHER_JSON} já carregadas, sem banco. */
+    static WeatherDictionary dictionary() {
+        WeatherDictionary.City city = new WeatherDictionary.City(1, "Florianópolis", "BR");
+        return new WeatherDictionary(null, null, Duration.ofSeconds(30)) {
+            @Override
+            public WeatherDictionary.City resolveCity(String name, String country) {
+                return city;
+            }
+
+            @Override
+            public WeatherDictionary.City city(int id) {
+                return city;
+            }
+
+            @Override
+            public Short descriptionCode(String description) {
+                return 1;
+            }
+
+            @Override
+            public String description(Short code) {
+                return "céu limpo";
+            }
+        };
+    }
+
+    static WeatherDTO weather(int index) {
+        return new WeatherDTO("Cidade " + index, "BR", 20.0 + index % 15, 40.0 + index % 60, 1.0 + index % 10,
+                "céu limpo", LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(index));
+    }
+
+    static List<WeatherDTO> weatherList(int size) {
+        List<WeatherDTO> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(weather(i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,101 @@
+package com.gntech.challenge.weatherapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.gntech.challenge.weatherapi.config.WeatherProtobufHttpMessageConverter;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Custo de codificação de {@code /by-city} em cada formato negociável (JSON, Smile e Protobuf), com e sem gzip.
+ * Os tamanhos dos corpos são impressos no setup, já que o JMH só mede tempo e alocação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherEncodingBenchmark {
+
+    @Param({"10", "500"})
+    public int listSize;
+
+    private ObjectWriter jsonWriter;
+    private ObjectWriter smileWriter;
+    private WeatherProtobufHttpMessageConverter protobufConverter;
+    private List<WeatherDTO> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        ObjectMapper smileMapper = SmileMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        jsonWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, WeatherDTO.class));
+        smileWriter = smileMapper.writerFor(smileMapper.getTypeFactory().constructCollectionType(List.class, WeatherDTO.class));
+        protobufConverter = new WeatherProtobufHttpMessageConverter();
+        items = BenchmarkData.weatherList(listSize);
+
+        System.out.printf("%n[tamanhos, %d itens] json=%d (gzip %d) smile=%d (gzip %d) protobuf=%d (gzip %d) bytes%n",
+                listSize, json().length, jsonGzip().length, smile().length, smileGzip().length,
+                protobuf().length, protobufGzip().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return jsonWriter.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smileWriter.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] protobuf() throws IOException {
+        return protobufConverter.writeList(items);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json());
+    }
+
+    @Benchmark
+    public byte[] smileGzip() throws IOException {
+        return gzip(smile());
+    }
+
+    @Benchmark
+    public byte[] protobufGzip() throws IOException {
+        return gzip(protobuf());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.gntech.challenge.weatherapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gntech.challenge.weatherapi.dto.OpenWeatherResponse;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura da resposta do OpenWeather e escrita das respostas da API com Jackson.
+ * {@code listSize} cobre uma página pequena e uma grande de {@code /v1/weather/all} e {@code /by-city}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherJsonBenchmark {
+
+    private ObjectReader responseReader;
+    private ObjectWriter dtoWriter;
+    private ObjectWriter listWriter;
+    private WeatherDTO dto;
+
+    @State(Scope.Benchmark)
+    public static class WeatherList {
+
+        @Param({"10", "500"})
+        public int listSize;
+
+        private List<WeatherDTO> items;
+
+        @Setup
+        public void setUp() {
+            items = BenchmarkData.weatherList(listSize);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        responseReader = objectMapper.readerFor(OpenWeatherResponse.class);
+        dtoWriter = objectMapper.writerFor(WeatherDTO.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, WeatherDTO.class));
+        dto = BenchmarkData.weather(0);
+    }
+
+    @Benchmark
+    public OpenWeatherResponse deserializeOpenWeatherResponse() throws IOException {
+        return responseReader.readValue(BenchmarkData.OPEN_WEATHER_JSON);
+    }
+
+    @Benchmark
+    public byte[] serializeWeatherDTO() throws IOException {
+        return dtoWriter.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializeWeatherList(WeatherList list) throws IOException {
+        return listWriter.writeValueAsBytes(list.items);
+    }
+}
@@ -0,0 +1,55 @@
+package com.gntech.challenge.weatherapi.benchmark;
+
+import com.gntech.challenge.weatherapi.dto.OpenWeatherResponse;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.mapper.WeatherMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherMapperBenchmark {
+
+    private final WeatherMapper mapper = new WeatherMapper(BenchmarkData.dictionary());
+    private OpenWeatherResponse response;
+    private WeatherDTO dto;
+    private WeatherEntity entity;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = BenchmarkData.objectMapper().readValue(BenchmarkData.OPEN_WEATHER_JSON, OpenWeatherResponse.class);
+        dto = mapper.fromResponse(response);
+        entity = mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public WeatherDTO fromResponse() {
+        return mapper.fromResponse(response);
+    }
+
+    @Benchmark
+    public WeatherEntity toEntity() {
+        return mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public WeatherDTO toDTO() {
+        return mapper.toDTO(entity);
+    }
+}
@@ -0,0 +1,35 @@
+package com.gntech.challenge.weatherapi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalização do nome da cidade feita em toda consulta. Fica no pacote do serviço porque
+ * {@link WeatherService#formatCityName(String)} é package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CityNameBenchmark {
+
+    @Param({"florianopolis", "  SÃO PAULO  "})
+    public String city;
+
+    @Benchmark
+    public String formatCityName() {
+        return WeatherService.formatCityName(city);
+    }
+}
@@ -0,0 +1,27 @@
+package com.gntech.challenge.weatherapi.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * O transporte do {@code WeatherClient} é o Apache HttpClient 5 com pool de conexões persistentes,
+ * configurado pelo Spring Cloud OpenFeign a partir de {@code spring.cloud.openfeign.httpclient.*}.
+ * Aqui apenas expomos as métricas do pool (conexões em uso, livres e requisições aguardando).
+ */
+@Configuration
+public class OpenWeatherHttpClientConfig {
+
+    @Bean
+    public MeterBinder openWeatherConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "openWeatherClient").bindTo(registry);
+            }
+        });
+    }
+}
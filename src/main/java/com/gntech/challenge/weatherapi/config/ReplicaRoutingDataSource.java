@@ -0,0 +1,168 @@
+package com.gntech.challenge.weatherapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Envia as transações {@code readOnly} às réplicas saudáveis, em rodízio, e todo o resto ao primário.
+ * Uma réplica fica fora do rodízio enquanto não responde ou enquanto o atraso de replicação passa de
+ * {@code maxLag}; sem réplica disponível, as leituras vão ao primário. Precisa ficar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, para que a conexão só seja
+ * escolhida depois que a transação já foi marcada como somente leitura.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    // 0 quando a réplica já aplicou tudo o que recebeu; null quando o atraso não pode ser medido
+    private static final String LAG_SQL = """
+            select case
+                when not pg_is_in_recovery() or pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() then 0
+                else extract(epoch from now() - pg_last_xact_replay_timestamp())
+            end
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final Function<DataSource, Double> lagProbe;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+    private volatile List<String> healthy = List.of();
+    private ScheduledExecutorService executor;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration checkInterval, MeterRegistry meterRegistry) {
+        this(primary, replicas, dataSource -> new JdbcTemplate(dataSource).queryForObject(LAG_SQL, Double.class),
+                maxLag, checkInterval, meterRegistry);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Function<DataSource, Double> lagProbe,
+                             Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.primaryReads = meterRegistry.counter("weather.datasource.reads", "target", PRIMARY);
+        this.replicaReads = meterRegistry.counter("weather.datasource.reads", "target", "replica");
+        this.replicas.keySet().forEach(name -> Gauge.builder("weather.datasource.replica.lag", lagSeconds,
+                        lags -> lags.getOrDefault(name, Double.NaN))
+                .tag("replica", name)
+                .baseUnit("seconds")
+                .register(meterRegistry));
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /** Verifica as réplicas uma vez antes de atender e depois a cada {@code checkInterval}. */
+    public void start() {
+        checkReplicas();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-replica-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::checkReplicas, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("[ReplicaRoutingDataSource] Leituras distribuídas entre {} réplicas (max-lag={}, check-interval={})",
+                replicas.size(), maxLag, checkInterval);
+    }
+
+    public void stop() throws Exception {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    void checkReplicas() {
+        List<String> available = replicas.entrySet().stream()
+                .filter(replica -> isAvailable(replica.getKey(), replica.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!available.equals(healthy)) {
+            log.info("[ReplicaRoutingDataSource:checkReplicas] Réplicas em uso: {}", available.isEmpty() ? "nenhuma" : available);
+        }
+        healthy = available;
+    }
+
+    private boolean isAvailable(String name, DataSource replica) {
+        try {
+            Double lag = lagProbe.apply(replica);
+            lagSeconds.put(name, lag != null ? lag : Double.NaN);
+            if (lag == null || lag > maxLag.toMillis() / 1000.0) {
+                log.warn("[ReplicaRoutingDataSource:isAvailable] Réplica '{}' atrasada (atraso {}), leituras vão ao primário",
+                        name, lag != null ? lag + " s" : "desconhecido");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            lagSeconds.remove(name);
+            log.warn("[ReplicaRoutingDataSource:isAvailable] Réplica '{}' indisponível: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> available = healthy;
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || available.isEmpty()) {
+            return PRIMARY;
+        }
+        return available.get(Math.floorMod(nextReplica.getAndIncrement(), available.size()));
+    }
+
+    /** Réplica que falha ao abrir conexão sai do rodízio até a próxima verificação e a leitura vai ao primário. */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!PRIMARY.equals(key)) {
+            try {
+                Connection connection = replicas.get(key).getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("[ReplicaRoutingDataSource:getConnection] Falha ao conectar na réplica '{}': {}", key, e.getMessage());
+                healthy = healthy.stream().filter(name -> !name.equals(key)).toList();
+            }
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryReads.increment();
+        }
+        return getResolvedDefaultDataSource().getConnection();
+    }
+
+    List<String> healthyReplicas() {
+        return healthy;
+    }
+}
@@ -0,0 +1,34 @@
+package com.gntech.challenge.weatherapi.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos compactos de resposta, escolhidos pelo cabeçalho Accept:
+ * {@code application/x-jackson-smile} (JSON binário, com nomes de campo repetidos referenciados em vez de
+ * reescritos) e {@code application/x-protobuf} (esquema em GET /v1/weather/schema).
+ * Os conversores entram depois dos padrão (por isso não são beans, que o Spring Boot colocaria à frente),
+ * então JSON continua sendo o formato de {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class WeatherContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public WeatherContentNegotiationConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // mesmo builder do JSON (módulos e formato de datas), com a fábrica Smile
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build()));
+        converters.add(new WeatherProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,70 @@
+package com.gntech.challenge.weatherapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réplicas de leitura, ativadas quando {@code weather.datasource.replicas.urls} tem ao menos uma URL.
+ * Transações {@code readOnly} vão às réplicas e as demais (gravações, Flyway) ao primário de
+ * {@code spring.datasource.*}; sem a propriedade, o DataSource padrão do Spring Boot continua em uso.
+ */
+@Configuration
+@ConditionalOnExpression("!'${weather.datasource.replicas.urls:}'.isBlank()")
+@Slf4j
+public class WeatherDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${weather.datasource.replicas.urls}") List<String> urls,
+            @Value("${weather.datasource.replicas.max-lag:PT5S}") Duration maxLag,
+            @Value("${weather.datasource.replicas.check-interval:PT5S}") Duration checkInterval,
+            @Value("${weather.datasource.replicas.connection-timeout:PT2S}") Duration connectionTimeout,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            // mesmas configurações de pool do primário (spring.datasource.hikari.*)
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName("weather-" + name);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+            log.info("[WeatherDataSourceConfig] Réplica de leitura '{}' em {}", name, url.trim());
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, checkInterval, meterRegistry);
+    }
+
+    /** A conexão física só é obtida no primeiro comando, quando o {@code readOnly} da transação já é conhecido. */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,48 @@
+package com.gntech.challenge.weatherapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@Slf4j
+public class WeatherExecutorConfig {
+
+    /**
+     * Executor das consultas paralelas ao OpenWeather. O tamanho fixo limita a concorrência;
+     * com {@code spring.threads.virtual.enabled=true} as threads do pool são virtuais.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService weatherFanOutExecutor(@Value("${weather.bulk.parallelism:8}") int parallelism,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        log.info("[WeatherExecutorConfig] Executor de consultas paralelas com {} threads {}", parallelism,
+                virtualThreads ? "virtuais" : "de plataforma");
+        return Executors.newFixedThreadPool(parallelism, threadFactory("weather-fan-out-", virtualThreads));
+    }
+
+    /**
+     * Executor das consultas das cidades assinadas por SSE, separado do fan-out para que as assinaturas não
+     * disputem threads com /current/bulk. A fila é limitada: uma cidade recusada fica para o próximo ciclo.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService weatherSubscriptionPollExecutor(@Value("${weather.subscriptions.poll-parallelism:4}") int parallelism,
+                                                           @Value("${weather.subscriptions.poll-queue-capacity:1000}") int queueCapacity,
+                                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("weather-subscription-poll-", virtualThreads));
+    }
+
+    private static ThreadFactory threadFactory(String prefix, boolean virtualThreads) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(prefix, 1).factory()
+                : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
@@ -0,0 +1,136 @@
+package com.gntech.challenge.weatherapi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escreve {@link WeatherDTO} e listas de {@link WeatherDTO} em Protocol Buffers, conforme o esquema publicado
+ * em {@value #SCHEMA_LOCATION}: um registro usa a mensagem {@code Weather} e uma lista, {@code WeatherList}.
+ * Outros tipos de corpo não são suportados neste formato.
+ */
+public class WeatherProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+    public static final String SCHEMA_LOCATION = "schema/weather.proto";
+
+    private final String schema;
+    private final ObjectWriter weatherWriter;
+    private final ObjectWriter weatherListWriter;
+
+    public WeatherProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+        this.schema = loadSchema();
+        ProtobufSchema protobufSchema;
+        try {
+            protobufSchema = ProtobufSchemaLoader.std.parse(schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ProtobufMapper mapper = new ProtobufMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        this.weatherWriter = mapper.writerFor(WeatherDTO.class).with(protobufSchema.withRootType("Weather"));
+        this.weatherListWriter = mapper.writer().with(protobufSchema.withRootType("WeatherList"));
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public byte[] write(WeatherDTO weather) throws IOException {
+        return weatherWriter.writeValueAsBytes(weather);
+    }
+
+    public byte[] writeList(Collection<WeatherDTO> weatherList) throws IOException {
+        return weatherListWriter.writeValueAsBytes(Map.of("items", weatherList));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WeatherDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (supports(clazz) || isWeatherCollection(type)) && canWrite(mediaType);
+    }
+
+    // o Spring consulta os tipos produzíveis pela classe do corpo (ArrayList), sem o genérico;
+    // o elemento da coleção é verificado em canWrite(Type, ...)
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes;
+        if (body instanceof WeatherDTO weather) {
+            bytes = write(weather);
+        } else if (body instanceof Collection<?> collection) {
+            bytes = writeList((Collection<WeatherDTO>) collection);
+        } else {
+            throw new HttpMessageNotWritableException("Tipo não suportado em " + APPLICATION_PROTOBUF + ": " + body.getClass().getName());
+        }
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura de " + APPLICATION_PROTOBUF + " não suportada", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura de " + APPLICATION_PROTOBUF + " não suportada", inputMessage);
+    }
+
+    private static boolean isWeatherCollection(Type type) {
+        ResolvableType collection = ResolvableType.forType(type).asCollection();
+        return collection != ResolvableType.NONE && collection.resolveGeneric(0) == WeatherDTO.class;
+    }
+
+    private static String loadSchema() {
+        try (InputStream in = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Esquema " + SCHEMA_LOCATION + " não encontrado", e);
+        }
+    }
+}
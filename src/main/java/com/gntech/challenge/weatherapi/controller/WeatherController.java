@@ -1,7 +1,16 @@
 package com.gntech.challenge.weatherapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gntech.challenge.weatherapi.config.WeatherProtobufHttpMessageConverter;
+import com.gntech.challenge.weatherapi.dto.BulkWeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherAggregateDTO;
 import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherPageDTO;
+import com.gntech.challenge.weatherapi.service.WeatherAggregationService;
 import com.gntech.challenge.weatherapi.service.WeatherService;
+import com.gntech.challenge.weatherapi.service.WeatherStreamService;
+import com.gntech.challenge.weatherapi.service.WeatherSubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,13 +22,27 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/v1/weather")
@@ -28,15 +51,29 @@ import java.util.List;
 @Tag(name = "Weather API", description = "Operações para consultar e armazenar dados de clima")
 public class WeatherController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final WeatherService weatherService;
+    private final WeatherStreamService weatherStreamService;
+    private final WeatherAggregationService weatherAggregationService;
+    private final WeatherSubscriptionService weatherSubscriptionService;
+    private final ObjectMapper objectMapper;
 
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(WeatherService weatherService, WeatherStreamService weatherStreamService,
+                             WeatherAggregationService weatherAggregationService,
+                             WeatherSubscriptionService weatherSubscriptionService, ObjectMapper objectMapper) {
         this.weatherService = weatherService;
+        this.weatherStreamService = weatherStreamService;
+        this.weatherAggregationService = weatherAggregationService;
+        this.weatherSubscriptionService = weatherSubscriptionService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/current")
     @Operation(summary = "Retorna o clima atual de uma cidade",
-    description = "Este endpoint consulta a API externa OpenWeather e retorna os dados de clima atual da cidade informada, incluindo temperatura, umidade, velocidade do vento e descrição do clima."
+    description = "Este endpoint consulta a API externa OpenWeather e retorna os dados de clima atual da cidade informada, incluindo temperatura, umidade, velocidade do vento e descrição do clima. Consultas recentes são servidas do cache em memória; use 'refresh=true' para ignorar o cache. "
+                    + "A resposta traz ETag e Last-Modified da observação; com 'If-None-Match' ou 'If-Modified-Since' correspondentes, retorna 304 sem corpo."
             )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucesso! Dados do clima retornados.",
@@ -55,27 +92,112 @@ public class WeatherController {
                                 """)
                     )
             ),
+            @ApiResponse(responseCode = "304", description = "A observação não mudou desde a versão informada pelo cliente.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Parâmetro de cidade inválido ou ausente.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cidade não encontrada.", content = @Content),
             @ApiResponse(responseCode = "502", description = "Erro ao chamar a API externa OpenWeather.", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
     })
-    public WeatherDTO getCurrentWeather(
+    public ResponseEntity<WeatherDTO> getCurrentWeather(
             @RequestParam
             @NotBlank(message = "O nome da cidade é obrigatório.")
             @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.")
-            String city) {
+            String city,
+            @RequestParam(defaultValue = "false")
+            @Parameter(description = "Ignora o cache e consulta diretamente a API OpenWeather", example = "false")
+            boolean refresh,
+            @RequestHeader HttpHeaders requestHeaders) {
         log.info("Recebida requisição para cidade: '{}'", city);
-        WeatherDTO weather = weatherService.getWeather(city);
+        WeatherDTO weather = refresh ? weatherService.refreshWeather(city) : weatherService.getWeather(city);
         log.info("Resposta retornada para cidade '{}', timestamp: {}",
                 weather.getCity(),
                 weather.getDateTime());
-        return weather;
+        // respostas degradadas (stale) mudam a cada requisição por causa de ageSeconds e não recebem validadores
+        if (weather.isStale() || weather.getDateTime() == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(weather);
+        }
+        WeatherValidators validators = WeatherValidators.of("current", weather.getDateTime(),
+                WeatherValidators.negotiatedFormat(requestHeaders));
+        return validators.isNotModified(requestHeaders) ? validators.notModified() : validators.ok(weather);
+    }
+
+    @GetMapping("/current/bulk")
+    @Operation(summary = "Retorna o clima atual de várias cidades",
+            description = "Este endpoint consulta o clima atual de uma lista de cidades em paralelo (com limite de concorrência) e retorna, em uma única resposta, os resultados e os erros de cada cidade. As leituras obtidas são persistidas em um único lote."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucesso! Resultados e erros por cidade retornados.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkWeatherDTO.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "results": {
+                                        "Florianópolis": {
+                                          "city": "Florianópolis",
+                                          "country": "BR",
+                                          "temperature": 25.3,
+                                          "humidity": 70,
+                                          "windSpeed": 5.2,
+                                          "description": "céu limpo",
+                                          "dateTime": "2025-11-07T10:00:00"
+                                        }
+                                      },
+                                      "errors": {
+                                        "Cidadeinexistente": {
+                                          "error": "Cidade 'Cidadeinexistente' não encontrada",
+                                          "timestamp": "2025-11-07T10:00:01",
+                                          "status": 404
+                                        }
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Lista de cidades ausente ou acima do limite.", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
+    })
+    public BulkWeatherDTO getCurrentWeatherBulk(
+            @RequestParam
+            @Parameter(description = "Lista de cidades separadas por vírgula", example = "Florianópolis,São Paulo")
+            List<String> cities) {
+        log.info("Requisição GET /current/bulk recebida para {} cidades", cities.size());
+        return weatherService.getWeatherBulk(cities);
+    }
+
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Assina atualizações de clima de várias cidades (Server-Sent Events)",
+            description = "Mantém a conexão aberta e envia um evento 'weather' a cada nova observação das cidades assinadas. "
+                    + "Cada cidade é consultada no OpenWeather uma vez por intervalo, independentemente do número de assinantes; "
+                    + "a última leitura conhecida é enviada logo após a assinatura. Comentários de heartbeat mantêm a conexão ativa, "
+                    + "e um cliente lento recebe apenas a leitura mais recente de cada cidade."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucesso! Eventos transmitidos enquanto a conexão estiver aberta.",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            examples = @ExampleObject(value = """
+                                    event:weather
+                                    data:{"city":"Florianópolis","country":"BR","temperature":25.3,"humidity":70.0,"windSpeed":5.2,"description":"céu limpo","dateTime":"2025-11-07T10:00:00"}
+
+                                    :heartbeat
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Lista de cidades ausente, inválida ou acima do limite.", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Limite de assinaturas simultâneas atingido.", content = @Content)
+    })
+    public SseEmitter subscribe(
+            @RequestParam
+            @Parameter(description = "Lista de cidades separadas por vírgula", example = "Florianópolis,São Paulo")
+            List<@NotBlank(message = "O nome da cidade é obrigatório.")
+                 @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.") String> cities) {
+        log.info("Requisição GET /subscribe recebida para {} cidades", cities.size());
+        return weatherSubscriptionService.subscribe(cities);
     }
 
     @GetMapping("/all")
     @Operation(summary = "Retorna todos os registros de clima paginados",
-            description = "Este endpoint retorna todos os registros de clima armazenados no banco de dados, com paginação configurável pelos parâmetros 'page' e 'size'."
+            description = "Este endpoint retorna todos os registros de clima armazenados no banco de dados, com paginação configurável pelos parâmetros 'page' e 'size'. "
+                    + "Ao informar o parâmetro 'cursor' (vazio para a primeira página), a paginação passa a ser por chave: o token da próxima página é retornado no header 'X-Next-Cursor'."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucesso! Lista de registros retornada.",
@@ -108,20 +230,34 @@ public class WeatherController {
             @ApiResponse(responseCode = "400", description = "Parâmetros de paginação inválidos.", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
     })
-    public List<WeatherDTO> getAllWeather(
+    public ResponseEntity<List<WeatherDTO>> getAllWeather(
             @RequestParam(defaultValue = "0")
             @Parameter(description = "Número da página (0-based)", example = "0")
             int page,
             @RequestParam(defaultValue = "10")
             @Parameter(description = "Quantidade de itens por página", example = "10")
-            int size) {
+            int size,
+            @RequestParam(required = false)
+            @Parameter(description = "Token de continuação retornado em 'X-Next-Cursor' (vazio para a primeira página)")
+            String cursor) {
         log.info("Requisição GET /all recebida");
-        return weatherService.getAllWeather(page, size);
+        if (cursor == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(weatherService.getAllWeather(page, size));
+        }
+
+        WeatherPageDTO weatherPage = weatherService.getWeatherPage(cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (weatherPage.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, weatherPage.getNextCursor());
+        }
+        return response.body(weatherPage.getItems());
     }
 
     @GetMapping("/by-city")
     @Operation(summary = "Retorna todos os registros de clima de uma cidade específica",
-            description = "Este endpoint retorna todos os registros de clima armazenados no banco para a cidade informada, podendo incluir múltiplos registros históricos."
+            description = "Este endpoint retorna todos os registros de clima armazenados no banco para a cidade informada, podendo incluir múltiplos registros históricos. "
+                    + "Os parâmetros opcionais 'from' e 'to' limitam o período consultado, e apenas as partições mensais correspondentes são lidas. "
+                    + "Sem período, a resposta traz ETag e Last-Modified da última observação e requisições condicionais podem retornar 304 sem consultar o histórico."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucesso! Lista de registros retornada.",
@@ -142,22 +278,85 @@ public class WeatherController {
                                     """)
                     )
             ),
+            @ApiResponse(responseCode = "304", description = "O histórico não mudou desde a versão informada pelo cliente.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Parâmetro de cidade inválido ou ausente.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cidade não encontrada.", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
     })
-    public List<WeatherDTO> getWeatherByCity(
+    public ResponseEntity<List<WeatherDTO>> getWeatherByCity(
             @RequestParam
             @NotBlank(message = "O nome da cidade é obrigatório.")
             @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.")
-            String city) {
+            String city,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Início do período (inclusivo)", example = "2025-11-01T00:00:00")
+            LocalDateTime from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fim do período (exclusivo)", example = "2025-12-01T00:00:00")
+            LocalDateTime to,
+            @RequestHeader HttpHeaders requestHeaders) {
         log.info("Requisição GET /weather?city={} recebida", city);
-        return weatherService.getWeatherByCity(city);
+        if (from != null || to != null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(weatherService.getWeatherByCity(city, from, to));
+        }
+
+        Optional<ResponseEntity<List<WeatherDTO>>> notModified = notModified("by-city", city, requestHeaders);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+        List<WeatherDTO> history = weatherService.getWeatherByCity(city);
+        if (history.isEmpty() || history.get(0).getDateTime() == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(history);
+        }
+        return WeatherValidators.of("by-city", history.get(0).getDateTime(), WeatherValidators.negotiatedFormat(requestHeaders))
+                .ok(history);
+    }
+
+    @GetMapping(value = "/by-city", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmite o histórico de clima de uma cidade em NDJSON",
+            description = "Variante em streaming de '/by-city', selecionada com 'Accept: application/x-ndjson'. Cada linha da resposta é um registro de clima em JSON, lido do banco por cursor, mantendo o uso de memória constante independentemente do tamanho do histórico."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucesso! Registros transmitidos, um por linha.",
+                    content = @Content(mediaType = APPLICATION_NDJSON_VALUE,
+                            examples = @ExampleObject(value = """
+                                    {"city":"Florianópolis","country":"BR","temperature":25.3,"humidity":70.0,"windSpeed":5.2,"description":"céu limpo","dateTime":"2025-11-07T10:00:00"}
+                                    {"city":"Florianópolis","country":"BR","temperature":24.1,"humidity":72.0,"windSpeed":4.8,"description":"nublado","dateTime":"2025-11-07T09:00:00"}
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Parâmetro de cidade inválido ou ausente.", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> streamWeatherByCity(
+            @RequestParam
+            @NotBlank(message = "O nome da cidade é obrigatório.")
+            @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.")
+            String city) {
+        log.info("Requisição GET /by-city (NDJSON) para cidade '{}' recebida", city);
+        ObjectWriter writer = objectMapper.writerFor(WeatherDTO.class);
+        StreamingResponseBody body = out -> {
+            weatherStreamService.streamWeatherByCity(city, dto -> {
+                try {
+                    out.write(writer.writeValueAsBytes(dto));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
     @GetMapping("/latest")
     @Operation(summary = "Retorna o último registro de clima de uma cidade",
-            description = "Este endpoint retorna o registro mais recente de clima para a cidade informada, consultando os dados armazenados no banco de dados."
+            description = "Este endpoint retorna o registro mais recente de clima para a cidade informada, consultando os dados armazenados no banco de dados. "
+                    + "A resposta traz ETag e Last-Modified; requisições condicionais cuja versão ainda é a atual retornam 304 a partir da versão mantida em memória."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucesso! Último registro retornado.",
@@ -176,16 +375,104 @@ public class WeatherController {
                                     """)
                     )
             ),
+            @ApiResponse(responseCode = "304", description = "O registro não mudou desde a versão informada pelo cliente.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Parâmetro de cidade inválido ou ausente.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Nenhum registro encontrado para a cidade informada.", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
     })
-    public WeatherDTO getLatestWeatherByCity(
+    public ResponseEntity<WeatherDTO> getLatestWeatherByCity(
             @RequestParam
             @NotBlank(message = "O nome da cidade é obrigatório.")
             @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.")
-            String city) {
+            String city,
+            @RequestHeader HttpHeaders requestHeaders) {
         log.info("Requisição GET /latest?city={} recebida", city);
-        return weatherService.getLatestWeatherByCityOrThrow(city);
+        Optional<ResponseEntity<WeatherDTO>> notModified = notModified("latest", city, requestHeaders);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+        WeatherDTO latest = weatherService.getLatestWeatherByCityOrThrow(city);
+        if (latest.getDateTime() == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(latest);
+        }
+        return WeatherValidators.of("latest", latest.getDateTime(), WeatherValidators.negotiatedFormat(requestHeaders))
+                .ok(latest);
+    }
+
+    @GetMapping("/aggregate")
+    @Operation(summary = "Retorna estatísticas do clima de uma cidade por hora, dia ou semana",
+            description = "Este endpoint retorna, para cada intervalo do período informado, o mínimo, o máximo e a média de temperatura, umidade e velocidade do vento da cidade. "
+                    + "Os valores vêm de agregados mantidos pelo banco a cada leitura gravada, então o custo da consulta depende apenas da quantidade de intervalos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucesso! Intervalos retornados.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = WeatherAggregateDTO.class),
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "city": "Florianópolis",
+                                      "granularity": "HOUR",
+                                      "from": "2025-11-07T10:00:00",
+                                      "to": "2025-11-07T12:00:00",
+                                      "buckets": [
+                                        {
+                                          "bucketStart": "2025-11-07T10:00:00",
+                                          "samples": 4,
+                                          "temperature": { "min": 24.8, "max": 25.6, "avg": 25.2 },
+                                          "humidity": { "min": 68.0, "max": 72.0, "avg": 70.0 },
+                                          "windSpeed": { "min": 4.1, "max": 5.6, "avg": 5.0 }
+                                        }
+                                      ]
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Cidade, granularidade ou período inválidos.", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor.", content = @Content)
+    })
+    public WeatherAggregateDTO getWeatherAggregate(
+            @RequestParam
+            @NotBlank(message = "O nome da cidade é obrigatório.")
+            @Pattern(regexp = "^[A-Za-zÀ-ÿ\\s-]+$", message = "O nome da cidade contém caracteres inválidos.")
+            String city,
+            @RequestParam(defaultValue = "HOUR")
+            @Parameter(description = "Tamanho de cada intervalo: HOUR, DAY ou WEEK", example = "HOUR")
+            String granularity,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Início do período (padrão: 2 dias, 30 dias ou 26 semanas antes de 'to')", example = "2025-11-07T00:00:00")
+            LocalDateTime from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "Fim do período, exclusivo (padrão: agora)", example = "2025-11-08T00:00:00")
+            LocalDateTime to) {
+        log.info("Requisição GET /aggregate?city={}&granularity={} recebida", city, granularity);
+        return weatherAggregationService.getAggregate(city, granularity, from, to);
+    }
+
+    @GetMapping(value = "/schema", produces = MediaType.TEXT_PLAIN_VALUE)
+    @Operation(summary = "Retorna o esquema Protocol Buffers das respostas binárias",
+            description = "Os endpoints de clima aceitam 'Accept: application/x-protobuf' (mensagem Weather para um registro e WeatherList para listas) "
+                    + "e 'Accept: application/x-jackson-smile' (JSON binário). Este endpoint publica o arquivo .proto usado para decodificar as respostas em Protocol Buffers."
+    )
+    @ApiResponse(responseCode = "200", description = "Sucesso! Esquema .proto retornado.", content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE))
+    public ResponseEntity<Resource> getProtobufSchema() {
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(new ClassPathResource(WeatherProtobufHttpMessageConverter.SCHEMA_LOCATION));
+    }
+
+    /**
+     * Responde 304 quando o cliente já tem a versão atual da cidade, sem ler o histórico nem serializar o corpo.
+     * Só é avaliado se o cliente enviou algum cabeçalho condicional.
+     */
+    private <T> Optional<ResponseEntity<T>> notModified(String resource, String city, HttpHeaders requestHeaders) {
+        if (requestHeaders.getIfNoneMatch().isEmpty() && requestHeaders.getIfModifiedSince() < 0) {
+            return Optional.empty();
+        }
+        return weatherService.getLatestObservation(city)
+                .map(version -> WeatherValidators.of(resource, version, WeatherValidators.negotiatedFormat(requestHeaders)))
+                .filter(validators -> validators.isNotModified(requestHeaders))
+                .map(WeatherValidators::notModified);
     }
 }
@@ -0,0 +1,88 @@
+package com.gntech.challenge.weatherapi.controller;
+
+import com.gntech.challenge.weatherapi.config.WeatherProtobufHttpMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Validadores HTTP (ETag e Last-Modified) derivados do horário da observação mais recente da cidade.
+ * O ETag inclui o recurso, já que /current, /latest e /by-city têm corpos diferentes para a mesma versão, e o
+ * formato negociado pelo Accept (JSON, Smile ou Protobuf), acompanhado de {@code Vary: Accept}. É fraco porque
+ * o corpo ainda muda de bytes conforme a compressão negociada (o Tomcat não comprime respostas com ETag forte).
+ */
+final class WeatherValidators {
+
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // mesma ordem dos conversores (ver WeatherContentNegotiationConfig): JSON atende Accept: */*
+    private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON, APPLICATION_SMILE,
+            WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+
+    private final String etag;
+    private final long lastModified;
+
+    private WeatherValidators(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    static WeatherValidators of(String resource, LocalDateTime version, MediaType format) {
+        long epochMillis = version.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new WeatherValidators("W/\"" + resource + "-" + format.getSubtype() + "-" + epochMillis + "\"", epochMillis);
+    }
+
+    /** Formato que a negociação de conteúdo escolherá para o Accept da requisição. */
+    static MediaType negotiatedFormat(HttpHeaders requestHeaders) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(requestHeaders.getAccept());
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedType : accepted) {
+            for (MediaType producible : PRODUCIBLE) {
+                if (acceptedType.includes(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    String etag() {
+        return etag;
+    }
+
+    /** Avalia If-None-Match (comparação fraca) e, na ausência dele, If-Modified-Since (precisão de segundos). */
+    boolean isNotModified(HttpHeaders requestHeaders) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag)));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && lastModified / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified)
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity.ok().eTag(etag).lastModified(lastModified).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+}
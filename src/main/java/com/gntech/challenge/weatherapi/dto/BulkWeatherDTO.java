@@ -0,0 +1,23 @@
+package com.gntech.challenge.weatherapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(description = "Resultado da consulta de clima atual para várias cidades")
+public class BulkWeatherDTO {
+
+    @Schema(description = "Clima atual por cidade consultada com sucesso")
+    private final Map<String, WeatherDTO> results;
+
+    @Schema(description = "Erro por cidade cuja consulta falhou")
+    private final Map<String, ErrorResponseDTO> errors;
+
+    public BulkWeatherDTO(Map<String, WeatherDTO> results, Map<String, ErrorResponseDTO> errors) {
+        this.results = results;
+        this.errors = errors;
+    }
+
+    public Map<String, WeatherDTO> getResults() { return results; }
+    public Map<String, ErrorResponseDTO> getErrors() { return errors; }
+}
@@ -12,6 +12,9 @@ public class ErrorResponseDTO {
     @Schema(description = "Data e hora do erro", example = "2025-11-07T10:10:33.5559308")
     private LocalDateTime timestamp;
 
+    @Schema(description = "Código de status HTTP associado ao erro", example = "502")
+    private Integer status;
+
     public ErrorResponseDTO() {
     }
 
@@ -20,6 +23,12 @@ public class ErrorResponseDTO {
         this.timestamp = timestamp;
     }
 
+    public ErrorResponseDTO(String error, LocalDateTime timestamp, Integer status) {
+        this.error = error;
+        this.timestamp = timestamp;
+        this.status = status;
+    }
+
     public String getError() {
         return error;
     }
@@ -35,4 +44,12 @@ public class ErrorResponseDTO {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+}
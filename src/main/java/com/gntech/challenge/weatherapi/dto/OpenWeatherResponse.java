@@ -10,6 +10,8 @@ public class OpenWeatherResponse {
     public Sys sys;
     public Weather[] weather;
     public String name;
+    // instante da observação (Unix, UTC); o OpenWeather só o atualiza a cada poucos minutos
+    public Long dt;
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Main {
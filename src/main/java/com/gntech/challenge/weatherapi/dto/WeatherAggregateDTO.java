@@ -0,0 +1,41 @@
+package com.gntech.challenge.weatherapi.dto;
+
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "Série agregada das leituras de uma cidade")
+public class WeatherAggregateDTO {
+
+    @Schema(description = "Cidade consultada", example = "Florianópolis")
+    private final String city;
+
+    @Schema(description = "Tamanho de cada intervalo", example = "HOUR")
+    private final WeatherGranularity granularity;
+
+    @Schema(description = "Início do primeiro intervalo considerado")
+    private final LocalDateTime from;
+
+    @Schema(description = "Fim (exclusivo) do período consultado")
+    private final LocalDateTime to;
+
+    @Schema(description = "Intervalos com leituras, em ordem cronológica")
+    private final List<WeatherBucketDTO> buckets;
+
+    public WeatherAggregateDTO(String city, WeatherGranularity granularity, LocalDateTime from, LocalDateTime to,
+                               List<WeatherBucketDTO> buckets) {
+        this.city = city;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+    }
+
+    public String getCity() { return city; }
+    public WeatherGranularity getGranularity() { return granularity; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public List<WeatherBucketDTO> getBuckets() { return buckets; }
+}
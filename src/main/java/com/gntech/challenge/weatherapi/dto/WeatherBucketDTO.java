@@ -0,0 +1,57 @@
+package com.gntech.challenge.weatherapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Estatísticas das leituras de uma cidade em um intervalo")
+public class WeatherBucketDTO {
+
+    @Schema(description = "Início do intervalo", example = "2025-11-07T10:00:00")
+    private final LocalDateTime bucketStart;
+
+    @Schema(description = "Quantidade de leituras no intervalo", example = "12")
+    private final long samples;
+
+    private final Metric temperature;
+    private final Metric humidity;
+    private final Metric windSpeed;
+
+    public WeatherBucketDTO(LocalDateTime bucketStart, long samples, Metric temperature, Metric humidity, Metric windSpeed) {
+        this.bucketStart = bucketStart;
+        this.samples = samples;
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.windSpeed = windSpeed;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public long getSamples() { return samples; }
+    public Metric getTemperature() { return temperature; }
+    public Metric getHumidity() { return humidity; }
+    public Metric getWindSpeed() { return windSpeed; }
+
+    @Schema(description = "Mínimo, máximo e média de uma métrica no intervalo")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Metric {
+        private final Double min;
+        private final Double max;
+        private final Double avg;
+
+        public Metric(Double min, Double max, Double avg) {
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+        }
+
+        /** Monta a métrica a partir dos acumuladores do rollup; sem amostras, todos os campos ficam nulos. */
+        public static Metric of(long count, double sum, Double min, Double max) {
+            return count == 0 ? new Metric(null, null, null) : new Metric(min, max, sum / count);
+        }
+
+        public Double getMin() { return min; }
+        public Double getMax() { return max; }
+        public Double getAvg() { return avg; }
+    }
+}
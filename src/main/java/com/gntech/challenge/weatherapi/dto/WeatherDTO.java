@@ -1,5 +1,8 @@
 package com.gntech.challenge.weatherapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class WeatherDTO {
@@ -10,6 +13,8 @@ public class WeatherDTO {
     private Double windSpeed;
     private String description;
     private LocalDateTime dateTime;
+    private Boolean stale;
+    private Long ageSeconds;
 
     public WeatherDTO(String city, String country, Double temperature, Double humidity,
                       Double windSpeed, String description, LocalDateTime dateTime) {
@@ -30,6 +35,23 @@ public class WeatherDTO {
     public String getDescription() { return description; }
     public LocalDateTime getDateTime() { return dateTime; }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Boolean getStale() { return stale; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getAgeSeconds() { return ageSeconds; }
+
+    public boolean isStale() {
+        return Boolean.TRUE.equals(stale);
+    }
+
+    public WeatherDTO asStale(Duration age) {
+        WeatherDTO copy = new WeatherDTO(city, country, temperature, humidity, windSpeed, description, dateTime);
+        copy.stale = true;
+        copy.ageSeconds = Math.max(0, age.toSeconds());
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "WeatherDTO{" +
@@ -40,6 +62,7 @@ public class WeatherDTO {
                 ", windSpeed=" + windSpeed + " m/s" +
                 ", description='" + description + '\'' +
                 ", dateTime=" + dateTime +
+                (isStale() ? ", stale=true, ageSeconds=" + ageSeconds : "") +
                 '}';
     }
 }
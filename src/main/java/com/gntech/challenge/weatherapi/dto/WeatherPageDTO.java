@@ -0,0 +1,20 @@
+package com.gntech.challenge.weatherapi.dto;
+
+import java.util.List;
+
+public class WeatherPageDTO {
+    private final List<WeatherDTO> items;
+    private final String nextCursor;
+
+    public WeatherPageDTO(List<WeatherDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<WeatherDTO> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -5,35 +5,43 @@ import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.hibernate.annotations.SQLInsert;
+import org.hibernate.jdbc.Expectation;
 
 @Data
 @AllArgsConstructor
 @Entity
 @Table(name = "weather")
+// a mesma observação (cidade + timestamp) é gravada uma única vez; repetições são ignoradas pelo banco
+@SQLInsert(sql = """
+        insert into weather (city_id, description_id, humidity, temperature, timestamp, wind_speed, id)
+        values (?, ?, ?, ?, ?, ?, ?)
+        on conflict (city_id, timestamp) do nothing
+        """, verify = Expectation.None.class)
 public class WeatherEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_seq")
+    @SequenceGenerator(name = "weather_seq", sequenceName = "weather_seq", allocationSize = 50)
     private Long id;
 
-    private String city;
-    private String country;
+    // nome, país e descrição ficam nas tabelas city e weather_description (ver WeatherDictionary)
+    private Integer cityId;
     private Double temperature;
     private Double humidity;
     private Double windSpeed;
-    private String description;
+    private Short descriptionId;
 
     private LocalDateTime timestamp;
 
     public WeatherEntity() {}
 
-    public WeatherEntity(String city, String country, Double temperature, Double humidity,
-                         Double windSpeed, String description, LocalDateTime timestamp) {
-        this.city = city;
-        this.country = country;
+    public WeatherEntity(Integer cityId, Double temperature, Double humidity,
+                         Double windSpeed, Short descriptionId, LocalDateTime timestamp) {
+        this.cityId = cityId;
         this.temperature = temperature;
         this.humidity = humidity;
         this.windSpeed = windSpeed;
-        this.description = description;
+        this.descriptionId = descriptionId;
         this.timestamp = timestamp;
     }
 }
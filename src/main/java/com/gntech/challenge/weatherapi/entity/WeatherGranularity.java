@@ -0,0 +1,42 @@
+package com.gntech.challenge.weatherapi.entity;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tamanho dos intervalos de {@code weather_rollup}. O início de cada intervalo segue o {@code date_trunc}
+ * do PostgreSQL usado pelo trigger (semanas começam na segunda-feira).
+ */
+public enum WeatherGranularity {
+
+    HOUR(Duration.ofHours(1), Duration.ofDays(2)),
+    DAY(Duration.ofDays(1), Duration.ofDays(30)),
+    WEEK(Duration.ofDays(7), Duration.ofDays(7 * 26));
+
+    private final Duration length;
+    private final Duration defaultRange;
+
+    WeatherGranularity(Duration length, Duration defaultRange) {
+        this.length = length;
+        this.defaultRange = defaultRange;
+    }
+
+    public Duration length() {
+        return length;
+    }
+
+    public Duration defaultRange() {
+        return defaultRange;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime dateTime) {
+        return switch (this) {
+            case HOUR -> dateTime.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> dateTime.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> dateTime.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+}
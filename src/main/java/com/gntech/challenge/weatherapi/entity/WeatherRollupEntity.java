@@ -0,0 +1,67 @@
+package com.gntech.challenge.weatherapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado de leituras de uma cidade em um intervalo. Somente leitura: as linhas são mantidas pelo
+ * trigger {@code weather_rollup_after_insert} (migrações V3 e V6).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@IdClass(WeatherRollupEntity.Key.class)
+@Table(name = "weather_rollup")
+public class WeatherRollupEntity {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private WeatherGranularity granularity;
+
+    @Id
+    private Integer cityId;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    private long samples;
+
+    private long temperatureCount;
+    private double temperatureSum;
+    private Double temperatureMin;
+    private Double temperatureMax;
+
+    private long humidityCount;
+    private double humiditySum;
+    private Double humidityMin;
+    private Double humidityMax;
+
+    private long windSpeedCount;
+    private double windSpeedSum;
+    private Double windSpeedMin;
+    private Double windSpeedMax;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private WeatherGranularity granularity;
+        private Integer cityId;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -1,13 +1,17 @@
 package com.gntech.challenge.weatherapi.exception;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -17,13 +21,20 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(WeatherException.class)
     public ResponseEntity<Map<String, Object>> handleWeatherException(WeatherException ex) {
+        meterRegistry.counter("weather.exceptions", "status", String.valueOf(ex.getStatusCode().value())).increment();
         Map<String, Object> body = new HashMap<>();
         body.put("error", ex.getMessage());
         body.put("timestamp", LocalDateTime.now());
 
-        return new ResponseEntity<>(body, ex.getStatusCode());
+        return error(body, ex.getStatusCode());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -32,7 +43,7 @@ public class GlobalExceptionHandler {
         body.put("error", ex.getBindingResult().getAllErrors().get(0).getDefaultMessage());
         body.put("timestamp", LocalDateTime.now());
 
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return error(body, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
@@ -47,7 +58,7 @@ public class GlobalExceptionHandler {
         body.put("error", errors);
         body.put("timestamp", LocalDateTime.now());
 
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return error(body, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
@@ -55,7 +66,15 @@ public class GlobalExceptionHandler {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("error", "O parâmetro '" + ex.getParameterName() + "' é obrigatório.");
         body.put("timestamp", LocalDateTime.now());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return error(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "Valor inválido para o parâmetro '" + ex.getName() + "': " + ex.getValue());
+        body.put("timestamp", LocalDateTime.now());
+        return error(body, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(FeignException.class)
@@ -70,7 +89,7 @@ public class GlobalExceptionHandler {
             status = HttpStatus.BAD_GATEWAY;
         }
 
-        return new ResponseEntity<>(body, status);
+        return error(body, status);
     }
 
     @ExceptionHandler(Exception.class)
@@ -79,6 +98,11 @@ public class GlobalExceptionHandler {
         body.put("error", "Ocorreu um erro inesperado: " + ex.getMessage());
         body.put("timestamp", LocalDateTime.now());
 
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        return error(body, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    // erros sempre em JSON, mesmo quando o cliente pediu Smile ou Protobuf (o schema só descreve Weather)
+    private static ResponseEntity<Map<String, Object>> error(Map<String, Object> body, HttpStatusCode status) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
@@ -4,13 +4,22 @@ package com.gntech.challenge.weatherapi.mapper;
 import com.gntech.challenge.weatherapi.dto.OpenWeatherResponse;
 import com.gntech.challenge.weatherapi.dto.WeatherDTO;
 import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.service.WeatherDictionary;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Component
 public class WeatherMapper {
 
+    private final WeatherDictionary dictionary;
+
+    public WeatherMapper(WeatherDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     public WeatherDTO fromResponse(OpenWeatherResponse response) {
         return new WeatherDTO(
                 response.name,
@@ -20,31 +29,39 @@ public class WeatherMapper {
                 response.wind != null ? response.wind.speed : null,
                 (response.weather != null && response.weather.length > 0)
                         ? response.weather[0].description : null,
-                LocalDateTime.now()
+                observationTime(response)
         );
     }
 
+    // usa o horário da observação do OpenWeather, para que leituras repetidas tenham o mesmo timestamp
+    private static LocalDateTime observationTime(OpenWeatherResponse response) {
+        if (response.dt == null) {
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(response.dt), ZoneId.systemDefault());
+    }
+
     public  WeatherEntity toEntity(WeatherDTO dto) {
         return new WeatherEntity(
                 null,
-                dto.getCity(),
-                dto.getCountry(),
+                dto.getCity() != null ? dictionary.resolveCity(dto.getCity(), dto.getCountry()).id() : null,
                 dto.getTemperature(),
                 dto.getHumidity(),
                 dto.getWindSpeed(),
-                dto.getDescription(),
+                dictionary.descriptionCode(dto.getDescription()),
                 dto.getDateTime() != null ? dto.getDateTime() : LocalDateTime.now()
         );
     }
 
     public WeatherDTO toDTO(WeatherEntity entity) {
+        WeatherDictionary.City city = entity.getCityId() != null ? dictionary.city(entity.getCityId()) : null;
         return new WeatherDTO(
-                entity.getCity(),
-                entity.getCountry(),
+                city != null ? city.name() : null,
+                city != null ? city.country() : null,
                 entity.getTemperature(),
                 entity.getHumidity(),
                 entity.getWindSpeed(),
-                entity.getDescription(),
+                dictionary.description(entity.getDescriptionId()),
                 entity.getTimestamp()
         );
     }
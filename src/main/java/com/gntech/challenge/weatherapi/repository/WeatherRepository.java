@@ -1,14 +1,64 @@
 package com.gntech.challenge.weatherapi.repository;
 
 import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Repository
 public interface WeatherRepository extends JpaRepository<WeatherEntity, Long>{
-    List<WeatherEntity> findByCityIgnoreCase(String city);
-    Optional<WeatherEntity> findFirstByCityIgnoreCaseOrderByTimestampDesc(String city);
+    // city_id vem do WeatherDictionary; as consultas usam o índice único (city_id, timestamp)
+    @Query("select w from WeatherEntity w where w.cityId = :cityId order by w.timestamp desc")
+    List<WeatherEntity> findByCityId(@Param("cityId") int cityId);
+
+    // intervalo explícito de timestamp permite ao PostgreSQL descartar as partições mensais fora do período
+    @Query("""
+            select w from WeatherEntity w
+            where w.cityId = :cityId and w.timestamp >= :from and w.timestamp < :to
+            order by w.timestamp desc
+            """)
+    List<WeatherEntity> findByCityIdBetween(@Param("cityId") int cityId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Query("select w from WeatherEntity w where w.cityId = :cityId order by w.timestamp desc limit 1")
+    Optional<WeatherEntity> findLatestByCityId(@Param("cityId") int cityId);
+
+    @Query("select max(w.timestamp) from WeatherEntity w where w.cityId = :cityId")
+    Optional<LocalDateTime> findLatestTimestampByCityId(@Param("cityId") int cityId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select w from WeatherEntity w where w.cityId = :cityId order by w.timestamp desc")
+    Stream<WeatherEntity> streamByCityId(@Param("cityId") int cityId);
+
+    @Query(value = """
+            select * from weather
+            order by timestamp desc, id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<WeatherEntity> findFirstPage(@Param("limit") int limit);
+
+    @Query(value = """
+            select * from weather
+            where (timestamp, id) < (:timestamp, :id)
+              and timestamp <= :timestamp -- redundante, mas permite a poda das partições mais novas
+            order by timestamp desc, id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<WeatherEntity> findPageBefore(@Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") long id,
+                                       @Param("limit") int limit);
 }
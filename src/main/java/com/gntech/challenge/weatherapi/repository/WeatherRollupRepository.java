@@ -0,0 +1,25 @@
+package com.gntech.challenge.weatherapi.repository;
+
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import com.gntech.challenge.weatherapi.entity.WeatherRollupEntity;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@org.springframework.stereotype.Repository
+public interface WeatherRollupRepository extends Repository<WeatherRollupEntity, WeatherRollupEntity.Key> {
+
+    @Query("""
+            select r from WeatherRollupEntity r
+            where r.granularity = :granularity and r.cityId = :cityId
+              and r.bucketStart >= :from and r.bucketStart < :to
+            order by r.bucketStart
+            """)
+    List<WeatherRollupEntity> findBuckets(@Param("granularity") WeatherGranularity granularity,
+                                          @Param("cityId") int cityId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,51 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contador de acessos por cidade normalizada, usado para decidir quais entradas do cache
+ * merecem ser renovadas antes de expirar. As contagens decaem pela metade a cada {@link #decay()},
+ * de modo que cidades sem acesso recente saem do rastreamento sozinhas.
+ */
+@Component
+public class HotCityTracker {
+
+    private final int maxTracked;
+    private final Map<String, Long> hits = new ConcurrentHashMap<>();
+
+    public HotCityTracker(@Value("${weather.refresh-ahead.max-tracked:10000}") int maxTracked,
+                          MeterRegistry meterRegistry) {
+        this.maxTracked = maxTracked;
+        Gauge.builder("weather.refresh-ahead.tracked", hits, Map::size).register(meterRegistry);
+    }
+
+    public void record(String city) {
+        if (hits.size() >= maxTracked && !hits.containsKey(city)) {
+            return;
+        }
+        hits.merge(city, 1L, Long::sum);
+    }
+
+    public List<String> top(int limit) {
+        return hits.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public void decay() {
+        hits.keySet().forEach(city -> hits.computeIfPresent(city, (key, count) -> count > 1 ? count / 2 : null));
+    }
+
+    public int size() {
+        return hits.size();
+    }
+}
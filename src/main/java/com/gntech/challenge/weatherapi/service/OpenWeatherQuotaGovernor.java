@@ -0,0 +1,128 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket da cota por minuto da chave do OpenWeather.
+ * Consultas de usuário ({@link Priority#USER}) podem esperar até {@code max-wait} por um token;
+ * consultas em segundo plano ({@link Priority#BACKGROUND}) não esperam e só usam os tokens acima
+ * da reserva mantida para os usuários.
+ */
+@Component
+@Slf4j
+public class OpenWeatherQuotaGovernor {
+
+    public enum Priority { USER, BACKGROUND }
+
+    private final boolean enabled;
+    private final double capacity;
+    private final double backgroundReserve;
+    private final double tokensPerNano;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Priority, Counter> usedCounters = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+
+    private double tokens;
+    private long lastRefill;
+
+    @Autowired
+    public OpenWeatherQuotaGovernor(@Value("${openweather.quota.enabled:true}") boolean enabled,
+                                    @Value("${openweather.quota.calls-per-minute:60}") int callsPerMinute,
+                                    @Value("${openweather.quota.background-reserve:0.2}") double backgroundReserve,
+                                    @Value("${openweather.quota.max-wait:PT0.5S}") Duration maxWait,
+                                    MeterRegistry meterRegistry) {
+        this(enabled, callsPerMinute, backgroundReserve, maxWait, meterRegistry, System::nanoTime);
+    }
+
+    OpenWeatherQuotaGovernor(boolean enabled, int callsPerMinute, double backgroundReserve, Duration maxWait,
+                             MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.capacity = callsPerMinute;
+        this.backgroundReserve = callsPerMinute * backgroundReserve;
+        this.tokensPerNano = callsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            usedCounters.put(priority, meterRegistry.counter("openweather.quota.tokens.used", "priority", tag));
+            shedCounters.put(priority, meterRegistry.counter("openweather.quota.shed", "priority", tag));
+        }
+        Gauge.builder("openweather.quota.tokens.available", this, OpenWeatherQuotaGovernor::availableTokens)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consome um token, esperando se necessário. Retorna {@code false} quando a cota não permite a
+     * chamada dentro do tempo de espera da prioridade; nesse caso o OpenWeather não deve ser consultado.
+     */
+    public boolean tryAcquire(Priority priority) {
+        if (!enabled) {
+            return true;
+        }
+
+        long waitNanos = reserve(priority);
+        if (waitNanos < 0) {
+            shedCounters.get(priority).increment();
+            log.debug("[OpenWeatherQuotaGovernor:tryAcquire] Cota esgotada, chamada {} descartada", priority);
+            return false;
+        }
+        usedCounters.get(priority).increment();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserva um token e devolve quanto tempo esperar por ele, ou -1 se a reserva não é permitida.
+     * Consultas de usuário podem deixar o saldo negativo, limitado pelo tempo máximo de espera.
+     */
+    private synchronized long reserve(Priority priority) {
+        refill();
+        double floor = priority == Priority.BACKGROUND ? backgroundReserve : 0;
+        if (tokens - 1 >= floor) {
+            tokens -= 1;
+            return 0;
+        }
+        if (priority == Priority.BACKGROUND) {
+            return -1;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+
+    synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+}
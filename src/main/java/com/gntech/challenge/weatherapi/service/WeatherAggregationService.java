@@ -0,0 +1,100 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherAggregateDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherBucketDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import com.gntech.challenge.weatherapi.entity.WeatherRollupEntity;
+import com.gntech.challenge.weatherapi.exception.WeatherException;
+import com.gntech.challenge.weatherapi.repository.WeatherRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Séries agregadas (mínimo, máximo e média por hora, dia ou semana) lidas da tabela {@code weather_rollup},
+ * que o banco mantém a cada leitura gravada. O custo da consulta depende do número de intervalos,
+ * não do número de leituras da cidade.
+ */
+@Service
+@Slf4j
+public class WeatherAggregationService {
+
+    private final WeatherRollupRepository rollupRepository;
+    private final WeatherDictionary dictionary;
+    private final int maxBuckets;
+    private final Clock clock;
+
+    @Autowired
+    public WeatherAggregationService(WeatherRollupRepository rollupRepository, WeatherDictionary dictionary,
+                                     @Value("${weather.aggregate.max-buckets:1000}") int maxBuckets) {
+        this(rollupRepository, dictionary, maxBuckets, Clock.systemDefaultZone());
+    }
+
+    WeatherAggregationService(WeatherRollupRepository rollupRepository, WeatherDictionary dictionary, int maxBuckets,
+                              Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.dictionary = dictionary;
+        this.maxBuckets = maxBuckets;
+        this.clock = clock;
+    }
+
+    /**
+     * Retorna os intervalos da cidade entre {@code from} (arredondado para o início do seu intervalo) e
+     * {@code to} (exclusivo). Sem {@code to}, usa o instante atual; sem {@code from}, o período padrão da granularidade.
+     */
+    @Transactional(readOnly = true)
+    public WeatherAggregateDTO getAggregate(String city, String granularity, LocalDateTime from, LocalDateTime to) {
+        WeatherGranularity resolved = parseGranularity(granularity);
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        LocalDateTime start = resolved.bucketStart(from != null ? from : end.minus(resolved.defaultRange()));
+
+        if (!start.isBefore(end)) {
+            throw new WeatherException("O parâmetro 'from' deve ser anterior a 'to'.", HttpStatus.BAD_REQUEST);
+        }
+        long buckets = Duration.between(start, end).dividedBy(resolved.length());
+        if (buckets > maxBuckets) {
+            throw new WeatherException("O período solicitado excede o limite de " + maxBuckets + " intervalos.", HttpStatus.BAD_REQUEST);
+        }
+
+        String formattedCity = WeatherService.formatCityName(city);
+        List<WeatherBucketDTO> result = dictionary.findCity(formattedCity)
+                .map(known -> rollupRepository.findBuckets(resolved, known.id(), start, end)
+                        .stream()
+                        .map(WeatherAggregationService::toBucket)
+                        .toList())
+                .orElse(List.of());
+
+        log.info("[WeatherAggregationService:getAggregate] {} intervalos {} para '{}' entre {} e {}",
+                result.size(), resolved, formattedCity, start, end);
+        return new WeatherAggregateDTO(formattedCity, resolved, start, end, result);
+    }
+
+    private static WeatherGranularity parseGranularity(String granularity) {
+        try {
+            return WeatherGranularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new WeatherException("Granularidade inválida: '" + granularity + "'. Use HOUR, DAY ou WEEK.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static WeatherBucketDTO toBucket(WeatherRollupEntity rollup) {
+        return new WeatherBucketDTO(
+                rollup.getBucketStart(),
+                rollup.getSamples(),
+                WeatherBucketDTO.Metric.of(rollup.getTemperatureCount(), rollup.getTemperatureSum(),
+                        rollup.getTemperatureMin(), rollup.getTemperatureMax()),
+                WeatherBucketDTO.Metric.of(rollup.getHumidityCount(), rollup.getHumiditySum(),
+                        rollup.getHumidityMin(), rollup.getHumidityMax()),
+                WeatherBucketDTO.Metric.of(rollup.getWindSpeedCount(), rollup.getWindSpeedSum(),
+                        rollup.getWindSpeedMin(), rollup.getWindSpeedMax()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache em memória do clima atual, indexado pelo nome normalizado da cidade.
+ * Limitado por tamanho e por tempo de vida (TTL) a partir da escrita.
+ */
+@Component
+@Slf4j
+public class WeatherCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, WeatherDTO> cache;
+
+    public WeatherCache(@Value("${weather.cache.enabled:true}") boolean enabled,
+                        @Value("${weather.cache.max-size:1000}") long maxSize,
+                        @Value("${weather.cache.ttl:PT5M}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather.current");
+        log.info("[WeatherCache] Cache de clima {} (max-size={}, ttl={})", enabled ? "habilitado" : "desabilitado", maxSize, ttl);
+    }
+
+    public Optional<WeatherDTO> get(String city) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(city));
+    }
+
+    public Optional<WeatherDTO> peek(String city) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.policy().getIfPresentQuietly(city));
+    }
+
+    public void put(String city, WeatherDTO dto) {
+        if (enabled && dto != null) {
+            cache.put(city, dto);
+        }
+    }
+
+    /**
+     * Tempo restante até a entrada expirar, sem contar como acesso; vazio se a cidade não está no cache.
+     */
+    public Optional<Duration> timeToExpiry(String city) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(city))
+                .map(ttl::minus);
+    }
+
+    public void invalidate(String city) {
+        cache.invalidate(city);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,43 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.exception.WeatherException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de continuação da paginação por chave (timestamp, id), serializada como token opaco.
+ */
+record WeatherCursor(LocalDateTime timestamp, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static WeatherCursor after(WeatherEntity entity) {
+        return new WeatherCursor(entity.getTimestamp(), entity.getId());
+    }
+
+    String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static WeatherCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("separador ausente");
+            }
+            return new WeatherCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new WeatherException("Cursor de paginação inválido", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
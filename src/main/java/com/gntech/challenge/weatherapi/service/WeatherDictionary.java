@@ -0,0 +1,160 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cópia em memória das tabelas {@code city} e {@code weather_description} (migração V6). Traduz o nome da cidade
+ * e a descrição para os ids gravados em {@code weather} e de volta, reaproveitando a mesma instância de String
+ * para todas as leituras da cidade. Carregada por completo na inicialização; entradas novas são gravadas no
+ * banco na primeira vez em que aparecem. Nomes consultados e ausentes do banco ficam em cache por {@code miss-ttl},
+ * para que buscas repetidas de cidades sem histórico não voltem ao banco a cada requisição.
+ */
+@Component
+@Slf4j
+public class WeatherDictionary {
+
+    public record City(int id, String name, String country) {
+    }
+
+    private static final RowMapper<City> CITY_ROW =
+            (rs, rowNum) -> new City(rs.getInt("id"), rs.getString("name"), rs.getString("country"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, City> citiesByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, City> citiesById = new ConcurrentHashMap<>();
+    private final Map<String, Short> descriptionCodes = new ConcurrentHashMap<>();
+    private final Map<Short, String> descriptions = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> missingKeys;
+
+    public WeatherDictionary(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${weather.dictionary.miss-ttl:PT30S}") Duration missTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.missingKeys = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(missTtl).build();
+        // cadastros confirmados na hora: um id em cache não pode sumir com o rollback de quem o pediu
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Carrega os dicionários depois das migrações do Flyway; antes disso as consultas caem no banco uma a uma. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("select id, name, country from city", CITY_ROW).forEach(this::cache);
+        jdbcTemplate.query("select id, description from weather_description",
+                        (rs, rowNum) -> Map.entry(rs.getShort("id"), rs.getString("description")))
+                .forEach(entry -> cacheDescription(entry.getKey(), entry.getValue()));
+        log.info("[WeatherDictionary:load] {} cidades e {} descrições carregadas", citiesById.size(), descriptions.size());
+    }
+
+    /** Cidade já conhecida com esse nome (sem diferenciar maiúsculas), sem cadastrá-la. */
+    public Optional<City> findCity(String name) {
+        String key = key(name);
+        City city = citiesByKey.get(key);
+        if (city != null) {
+            return Optional.of(city);
+        }
+        if (missingKeys.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+        Optional<City> stored = firstCity(jdbcTemplate.query("select id, name, country from city where name_key = ?", CITY_ROW, key));
+        if (stored.isEmpty()) {
+            missingKeys.put(key, Boolean.TRUE);
+        }
+        return stored;
+    }
+
+    /** Id da cidade, cadastrando-a com o nome e o país informados se ainda não existir. */
+    public City resolveCity(String name, String country) {
+        return findCity(name).orElseGet(() -> {
+            String key = key(name);
+            List<City> stored = requiresNew.execute(status -> {
+                jdbcTemplate.update("insert into city (name_key, name, country) values (?, ?, ?) on conflict (name_key) do nothing",
+                        key, name.trim(), country);
+                return jdbcTemplate.query("select id, name, country from city where name_key = ?", CITY_ROW, key);
+            });
+            return firstCity(stored).orElseThrow(() -> new IllegalStateException("Cidade '" + name + "' não cadastrada"));
+        });
+    }
+
+    public City city(int id) {
+        City city = citiesById.get(id);
+        if (city != null) {
+            return city;
+        }
+        return firstCity(jdbcTemplate.query("select id, name, country from city where id = ?", CITY_ROW, id))
+                .orElseThrow(() -> new IllegalStateException("Cidade de id " + id + " não cadastrada"));
+    }
+
+    /** Código da descrição, cadastrando-a se ainda não existir. */
+    public Short descriptionCode(String description) {
+        if (description == null) {
+            return null;
+        }
+        Short code = descriptionCodes.get(description);
+        if (code != null) {
+            return code;
+        }
+        Short stored = requiresNew.execute(status -> {
+            jdbcTemplate.update("insert into weather_description (description) values (?) on conflict (description) do nothing",
+                    description);
+            return jdbcTemplate.queryForObject("select id from weather_description where description = ?",
+                    Short.class, description);
+        });
+        cacheDescription(stored, description);
+        return stored;
+    }
+
+    public String description(Short code) {
+        if (code == null) {
+            return null;
+        }
+        String description = descriptions.get(code);
+        if (description != null) {
+            return description;
+        }
+        String stored = jdbcTemplate.queryForObject("select description from weather_description where id = ?",
+                String.class, code);
+        cacheDescription(code, stored);
+        return stored;
+    }
+
+    private Optional<City> firstCity(List<City> rows) {
+        return rows.stream().findFirst().map(this::cache);
+    }
+
+    private City cache(City city) {
+        City known = citiesById.computeIfAbsent(city.id(), id -> city);
+        String key = key(known.name());
+        citiesByKey.putIfAbsent(key, known);
+        missingKeys.invalidate(key);
+        return known;
+    }
+
+    private Short cacheDescription(Short code, String description) {
+        descriptions.putIfAbsent(code, description);
+        descriptionCodes.putIfAbsent(descriptions.get(code), code);
+        return code;
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
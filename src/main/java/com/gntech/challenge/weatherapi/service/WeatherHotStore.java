@@ -0,0 +1,243 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Últimas leituras de cada cidade em memória, em buffers circulares de arrays primitivos (sem um objeto por leitura),
+ * alimentados a cada gravação e pré-carregados do banco na inicialização. Atende /latest e consultas de período
+ * curto de /by-city; cada buffer sabe a partir de qual horário contém todas as leituras da cidade, e períodos
+ * anteriores a isso continuam indo ao banco. Supõe uma única instância gravando no banco.
+ */
+@Component
+@Slf4j
+public class WeatherHotStore {
+
+    private static final long UNBOUNDED = Long.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WeatherDictionary dictionary;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxCities;
+    private final Cache<Integer, CityRing> rings;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public WeatherHotStore(JdbcTemplate jdbcTemplate, WeatherDictionary dictionary,
+                           @Value("${weather.hot-store.enabled:true}") boolean enabled,
+                           @Value("${weather.hot-store.capacity:48}") int capacity,
+                           @Value("${weather.hot-store.max-cities:10000}") int maxCities,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxCities = maxCities;
+        this.rings = Caffeine.newBuilder().maximumSize(maxCities).build();
+        this.hitCounter = meterRegistry.counter("weather.hot-store.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("weather.hot-store.requests", "result", "miss");
+    }
+
+    /** Carrega as últimas {@code capacity} leituras de até {@code max-cities} cidades, uma busca por índice por cidade. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, List<Object[]>> byCity = new HashMap<>();
+        jdbcTemplate.query("""
+                select c.id as city_id, w.temperature, w.humidity, w.wind_speed, w.description_id, w.timestamp
+                from (select id from city order by id limit ?) c
+                cross join lateral (
+                    select * from weather w where w.city_id = c.id order by w.timestamp desc limit ?
+                ) w
+                """, rs -> {
+            byCity.computeIfAbsent(rs.getInt("city_id"), id -> new ArrayList<>()).add(row(rs));
+        }, maxCities, capacity);
+
+        byCity.forEach((cityId, rows) -> {
+            // linhas vêm da mais nova para a mais antiga; menos que capacity significa histórico completo
+            CityRing ring = new CityRing(capacity, rows.size() < capacity ? UNBOUNDED : (long) rows.get(rows.size() - 1)[4]);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Object[] row = rows.get(i);
+                ring.append((Double) row[0], (Double) row[1], (Double) row[2], (Short) row[3], (long) row[4]);
+            }
+            rings.asMap().putIfAbsent(cityId, ring);
+        });
+        log.info("[WeatherHotStore:warmUp] Últimas leituras de {} cidades carregadas em memória", byCity.size());
+    }
+
+    /** Registra uma leitura aceita para gravação (salva ou enfileirada). */
+    public void record(WeatherEntity entity) {
+        if (!enabled || entity.getCityId() == null || entity.getTimestamp() == null) {
+            return;
+        }
+        long micros = toMicros(entity.getTimestamp());
+        // cidade fora da memória: o buffer só responde a partir desta leitura
+        rings.get(entity.getCityId(), id -> new CityRing(capacity, micros))
+                .append(entity.getTemperature(), entity.getHumidity(), entity.getWindSpeed(), entity.getDescriptionId(), micros);
+    }
+
+    /**
+     * Descarta o buffer da cidade de uma leitura que não chegou ao banco; as consultas da cidade voltam ao banco
+     * até a próxima gravação.
+     */
+    public void evict(WeatherEntity entity) {
+        if (entity.getCityId() != null) {
+            rings.invalidate(entity.getCityId());
+        }
+    }
+
+    public Optional<WeatherDTO> latest(int cityId) {
+        CityRing ring = enabled ? rings.getIfPresent(cityId) : null;
+        Optional<WeatherDTO> latest = ring != null ? ring.latest(this, cityId) : Optional.empty();
+        (latest.isPresent() ? hitCounter : missCounter).increment();
+        return latest;
+    }
+
+    /**
+     * Leituras da cidade em [from, to), da mais nova para a mais antiga, se o buffer contém todas as leituras
+     * do período; caso contrário, vazio e a consulta deve ir ao banco.
+     */
+    public Optional<List<WeatherDTO>> range(int cityId, LocalDateTime from, LocalDateTime to) {
+        CityRing ring = enabled ? rings.getIfPresent(cityId) : null;
+        Optional<List<WeatherDTO>> range = ring != null
+                ? ring.range(this, cityId, toMicros(from), toMicros(to))
+                : Optional.empty();
+        (range.isPresent() ? hitCounter : missCounter).increment();
+        return range;
+    }
+
+    private WeatherDTO toDTO(int cityId, double temperature, double humidity, double windSpeed, short descriptionId,
+                             long micros) {
+        WeatherDictionary.City city = dictionary.city(cityId);
+        return new WeatherDTO(city.name(), city.country(), nullable(temperature), nullable(humidity),
+                nullable(windSpeed), descriptionId < 0 ? null : dictionary.description(descriptionId), fromMicros(micros));
+    }
+
+    private static Object[] row(ResultSet rs) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        return new Object[]{
+                rs.getObject("temperature", Double.class),
+                rs.getObject("humidity", Double.class),
+                rs.getObject("wind_speed", Double.class),
+                rs.getObject("description_id", Short.class),
+                toMicros(timestamp.toLocalDateTime())
+        };
+    }
+
+    // horário local em microssegundos, a mesma precisão de timestamp(6)
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    private static Double nullable(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Buffer circular de uma cidade em ordem de horário. Valores ausentes são NaN (e -1 na descrição).
+     * {@code coveredFrom} é o horário a partir do qual o buffer tem todas as leituras da cidade.
+     */
+    static final class CityRing {
+
+        private final double[] temperature;
+        private final double[] humidity;
+        private final double[] windSpeed;
+        private final short[] descriptionId;
+        private final long[] timestamp;
+        private int next;
+        private int size;
+        private long coveredFrom;
+
+        CityRing(int capacity, long coveredFrom) {
+            this.temperature = new double[capacity];
+            this.humidity = new double[capacity];
+            this.windSpeed = new double[capacity];
+            this.descriptionId = new short[capacity];
+            this.timestamp = new long[capacity];
+            this.coveredFrom = coveredFrom;
+        }
+
+        synchronized void append(Double temperature, Double humidity, Double windSpeed, Short descriptionId, long micros) {
+            // leituras que não são mais novas que a última já estão no buffer (pré-carga concorrente com gravação)
+            if (size > 0 && micros <= timestamp[index(size - 1)]) {
+                return;
+            }
+            int capacity = timestamp.length;
+            this.temperature[next] = temperature != null ? temperature : Double.NaN;
+            this.humidity[next] = humidity != null ? humidity : Double.NaN;
+            this.windSpeed[next] = windSpeed != null ? windSpeed : Double.NaN;
+            this.descriptionId[next] = descriptionId != null ? descriptionId : -1;
+            this.timestamp[next] = micros;
+            next = (next + 1) % capacity;
+            if (size < capacity) {
+                size++;
+            } else {
+                // a leitura mais antiga foi sobrescrita; o período anterior à que restou passa a ser do banco
+                coveredFrom = Math.max(coveredFrom, timestamp[index(0)]);
+            }
+        }
+
+        synchronized Optional<WeatherDTO> latest(WeatherHotStore store, int cityId) {
+            if (size == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(dto(store, cityId, index(size - 1)));
+        }
+
+        synchronized Optional<List<WeatherDTO>> range(WeatherHotStore store, int cityId, long from, long to) {
+            if (from < coveredFrom) {
+                return Optional.empty();
+            }
+            List<WeatherDTO> result = new ArrayList<>();
+            for (int i = size - 1; i >= 0; i--) {
+                long micros = timestamp[index(i)];
+                if (micros < from) {
+                    break;
+                }
+                if (micros < to) {
+                    result.add(dto(store, cityId, index(i)));
+                }
+            }
+            return Optional.of(result);
+        }
+
+        // posição física da i-ésima leitura mais antiga
+        private int index(int i) {
+            return Math.floorMod(next - size + i, timestamp.length);
+        }
+
+        private WeatherDTO dto(WeatherHotStore store, int cityId, int index) {
+            return store.toDTO(cityId, temperature[index], humidity[index], windSpeed[index], descriptionId[index],
+                    timestamp[index]);
+        }
+    }
+}
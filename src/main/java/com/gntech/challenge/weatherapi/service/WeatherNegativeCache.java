@@ -0,0 +1,59 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cidades que o OpenWeather não reconheceu (404) ou recusou como inválidas (400), indexadas pelo nome
+ * normalizado. Enquanto a entrada não expira, novas consultas à mesma cidade são respondidas com o mesmo
+ * status sem chamar o OpenWeather nem consumir cota. O TTL é curto e independente do cache de clima.
+ */
+@Component
+@Slf4j
+public class WeatherNegativeCache {
+
+    private final boolean enabled;
+    private final Cache<String, HttpStatus> cache;
+
+    public WeatherNegativeCache(@Value("${weather.negative-cache.enabled:true}") boolean enabled,
+                                @Value("${weather.negative-cache.max-size:10000}") long maxSize,
+                                @Value("${weather.negative-cache.ttl:PT10M}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather.not-found");
+        log.info("[WeatherNegativeCache] Cache de cidades não encontradas {} (max-size={}, ttl={})",
+                enabled ? "habilitado" : "desabilitado", maxSize, ttl);
+    }
+
+    /** Status com que o OpenWeather recusou a cidade, se a recusa ainda está em cache. */
+    public Optional<HttpStatus> get(String city) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(city));
+    }
+
+    public void put(String city, HttpStatus status) {
+        if (enabled) {
+            cache.put(city, status);
+        }
+    }
+
+    public void invalidate(String city) {
+        cache.invalidate(city);
+    }
+}
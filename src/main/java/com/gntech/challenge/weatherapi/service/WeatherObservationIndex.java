@@ -0,0 +1,69 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Último horário de observação gravado por cidade (id do {@link WeatherDictionary}). Permite descartar em memória as leituras cuja
+ * observação o OpenWeather ainda não atualizou; a restrição única (city, timestamp) no banco cobre
+ * o que escapar deste índice (reinícios, cidades removidas por tamanho). Também serve como versão
+ * da cidade para as requisições condicionais de /latest e /by-city.
+ */
+@Component
+public class WeatherObservationIndex {
+
+    private final Cache<Integer, LocalDateTime> lastSeen;
+    private final Counter skippedCounter;
+
+    public WeatherObservationIndex(@Value("${weather.persistence.dedupe.max-cities:10000}") long maxCities,
+                                   MeterRegistry meterRegistry) {
+        this.lastSeen = Caffeine.newBuilder().maximumSize(maxCities).build();
+        this.skippedCounter = meterRegistry.counter("weather.persistence.deduplicated");
+    }
+
+    /**
+     * Registra a observação e retorna {@code true} se ela é mais nova que a última registrada para a cidade,
+     * ou seja, se deve ser gravada.
+     */
+    public boolean markIfNew(Integer cityId, LocalDateTime observedAt) {
+        if (cityId == null || observedAt == null) {
+            return true;
+        }
+        AtomicBoolean isNew = new AtomicBoolean(false);
+        lastSeen.asMap().compute(cityId, (k, previous) -> {
+            if (previous != null && !observedAt.isAfter(previous)) {
+                return previous;
+            }
+            isNew.set(true);
+            return observedAt;
+        });
+        if (!isNew.get()) {
+            skippedCounter.increment();
+        }
+        return isNew.get();
+    }
+
+    /** Desfaz o registro quando a gravação da observação falha, para que ela seja tentada de novo. */
+    public void forget(Integer cityId, LocalDateTime observedAt) {
+        if (cityId != null && observedAt != null) {
+            lastSeen.asMap().remove(cityId, observedAt);
+        }
+    }
+
+    public Optional<LocalDateTime> lastObservation(int cityId) {
+        return Optional.ofNullable(lastSeen.getIfPresent(cityId));
+    }
+
+    /** Registra uma observação já gravada (lida do banco), mantendo a mais recente. */
+    public void remember(int cityId, LocalDateTime observedAt) {
+        lastSeen.asMap().merge(cityId, observedAt, (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+}
@@ -0,0 +1,150 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manutenção das partições mensais de {@code weather} (migração V4): cria antecipadamente as partições
+ * dos próximos meses e remove, com DROP da partição inteira, os meses fora da retenção.
+ * Os agregados de {@code weather_rollup} não são afetados pela retenção.
+ */
+@Component
+@Slf4j
+public class WeatherPartitionMaintenance {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("weather_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Duration interval;
+    private final Clock clock;
+    private final Counter createdCounter;
+    private final Counter droppedCounter;
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public WeatherPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                       @Value("${weather.partitions.maintenance.enabled:true}") boolean enabled,
+                                       @Value("${weather.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${weather.partitions.retention-months:0}") int retentionMonths,
+                                       @Value("${weather.partitions.maintenance.interval:PT6H}") Duration interval,
+                                       MeterRegistry meterRegistry) {
+        this(jdbcTemplate, enabled, monthsAhead, retentionMonths, interval, Clock.systemDefaultZone(), meterRegistry);
+    }
+
+    WeatherPartitionMaintenance(JdbcTemplate jdbcTemplate, boolean enabled, int monthsAhead, int retentionMonths,
+                                Duration interval, Clock clock, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.interval = interval;
+        this.clock = clock;
+        this.createdCounter = meterRegistry.counter("weather.partitions.created");
+        this.droppedCounter = meterRegistry.counter("weather.partitions.dropped");
+    }
+
+    /** Agenda a manutenção só depois das migrações do Flyway, que criam as funções usadas aqui. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runMaintenance, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("[WeatherPartitionMaintenance] Manutenção de partições habilitada (months-ahead={}, retention-months={}, interval={})",
+                monthsAhead, retentionMonths > 0 ? retentionMonths : "sem limite", interval);
+    }
+
+    void runMaintenance() {
+        try {
+            createUpcomingPartitions();
+            dropExpiredPartitions();
+        } catch (Exception e) {
+            log.error("[WeatherPartitionMaintenance:runMaintenance] Falha na manutenção das partições: {}", e.getMessage(), e);
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        List<String> existing = partitionNames();
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.contains(partitionName(month))) {
+                continue;
+            }
+            String name = jdbcTemplate.queryForObject("select weather_create_partition(?)", String.class, month.atDay(1));
+            createdCounter.increment();
+            log.info("[WeatherPartitionMaintenance:createUpcomingPartitions] Partição '{}' criada", name);
+        }
+    }
+
+    /** Remove as partições cujo mês termina antes do início da janela de retenção. */
+    private void dropExpiredPartitions() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(retentionMonths);
+        for (String name : partitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_MONTH);
+            if (month.isBefore(oldestKept)) {
+                // nome validado pelo padrão acima, seguro para concatenar no DDL
+                jdbcTemplate.execute("drop table if exists " + name);
+                droppedCounter.increment();
+                log.info("[WeatherPartitionMaintenance:dropExpiredPartitions] Partição '{}' removida (retenção de {} meses)",
+                        name, retentionMonths);
+            }
+        }
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList("""
+                select c.relname
+                from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'weather'::regclass
+                order by c.relname
+                """, String.class);
+    }
+
+    static String partitionName(YearMonth month) {
+        return "weather_p" + month.format(PARTITION_MONTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renova em segundo plano as cidades mais acessadas pouco antes de a entrada do cache expirar,
+ * para que as requisições de cidades populares não esperem pelo OpenWeather.
+ * A cada ciclo no máximo {@code max-refreshes-per-minute} (proporcional ao intervalo) renovações
+ * são agendadas, espalhadas ao longo do intervalo.
+ */
+@Component
+@Slf4j
+public class WeatherRefreshAheadScheduler {
+
+    private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
+    private final HotCityTracker hotCityTracker;
+    private final int topN;
+    private final Duration interval;
+    private final Duration window;
+    private final int refreshesPerCycle;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+    private final Counter refreshedCounter;
+    private final Counter failedCounter;
+
+    public WeatherRefreshAheadScheduler(WeatherService weatherService, WeatherCache weatherCache, HotCityTracker hotCityTracker,
+                                        @Value("${weather.refresh-ahead.enabled:true}") boolean enabled,
+                                        @Value("${weather.refresh-ahead.top-n:20}") int topN,
+                                        @Value("${weather.refresh-ahead.interval:PT30S}") Duration interval,
+                                        @Value("${weather.refresh-ahead.window:PT1M}") Duration window,
+                                        @Value("${weather.refresh-ahead.max-refreshes-per-minute:60}") int maxRefreshesPerMinute,
+                                        @Value("${weather.refresh-ahead.workers:2}") int workers,
+                                        MeterRegistry meterRegistry) {
+        this.weatherService = weatherService;
+        this.weatherCache = weatherCache;
+        this.hotCityTracker = hotCityTracker;
+        this.topN = topN;
+        this.interval = interval;
+        this.window = window;
+        this.refreshesPerCycle = Math.max(1, (int) (maxRefreshesPerMinute * interval.toMillis() / Duration.ofMinutes(1).toMillis()));
+        this.refreshedCounter = meterRegistry.counter("weather.refresh-ahead.refreshed");
+        this.failedCounter = meterRegistry.counter("weather.refresh-ahead.failed");
+
+        if (enabled) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ScheduledThreadPoolExecutor(workers, runnable -> {
+                Thread thread = new Thread(runnable, "weather-refresh-ahead-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            long intervalMillis = interval.toMillis();
+            executor.scheduleWithFixedDelay(this::runCycle, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            log.info("[WeatherRefreshAheadScheduler] Refresh-ahead habilitado (top-n={}, interval={}, window={}, {} renovações por ciclo)",
+                    topN, interval, window, refreshesPerCycle);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    void runCycle() {
+        try {
+            List<String> due = hotCityTracker.top(topN).stream()
+                    .filter(city -> !scheduled.contains(city))
+                    .filter(city -> weatherCache.timeToExpiry(city)
+                            .map(remaining -> remaining.compareTo(window) <= 0)
+                            .orElse(false))
+                    .limit(refreshesPerCycle)
+                    .toList();
+
+            long spacingMillis = due.isEmpty() ? 0 : interval.toMillis() / due.size();
+            for (int i = 0; i < due.size(); i++) {
+                String city = due.get(i);
+                scheduled.add(city);
+                executor.schedule(() -> refresh(city), i * spacingMillis, TimeUnit.MILLISECONDS);
+            }
+            if (!due.isEmpty()) {
+                log.debug("[WeatherRefreshAheadScheduler:runCycle] {} cidades agendadas para renovação", due.size());
+            }
+            hotCityTracker.decay();
+        } catch (Exception e) {
+            log.error("[WeatherRefreshAheadScheduler:runCycle] Falha no ciclo de renovação: {}", e.getMessage(), e);
+        }
+    }
+
+    private void refresh(String city) {
+        try {
+            weatherService.refreshWeather(city, OpenWeatherQuotaGovernor.Priority.BACKGROUND);
+            refreshedCounter.increment();
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("[WeatherRefreshAheadScheduler:refresh] Falha ao renovar '{}': {}", city, e.getMessage());
+        } finally {
+            scheduled.remove(city);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
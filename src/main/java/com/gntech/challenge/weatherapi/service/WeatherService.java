@@ -1,75 +1,431 @@
 package com.gntech.challenge.weatherapi.service;
 
+import com.gntech.challenge.weatherapi.dto.BulkWeatherDTO;
+import com.gntech.challenge.weatherapi.dto.ErrorResponseDTO;
 import com.gntech.challenge.weatherapi.dto.OpenWeatherResponse;
 import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherPageDTO;
 import com.gntech.challenge.weatherapi.entity.WeatherEntity;
 import com.gntech.challenge.weatherapi.exception.WeatherException;
 import com.gntech.challenge.weatherapi.mapper.WeatherMapper;
 import com.gntech.challenge.weatherapi.repository.WeatherRepository;
+import com.gntech.challenge.weatherapi.service.OpenWeatherQuotaGovernor.Priority;
 import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 public class WeatherService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    // limites usados quando o período de /by-city não é informado (dentro da faixa do timestamp do PostgreSQL)
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+    static final String OPEN_WEATHER_CIRCUIT_BREAKER = "openWeather";
+    // mesma regra do @Pattern dos endpoints de uma cidade, aplicada a cada cidade de /current/bulk
+    private static final Pattern CITY_NAME = Pattern.compile("^[A-Za-zÀ-ÿ\\s-]+$");
+
     private final WeatherClient weatherClient;
     private final WeatherRepository weatherRepository;
     private final WeatherMapper mapper;
+    private final WeatherCache weatherCache;
+    private final WeatherNegativeCache negativeCache;
+    private final HotCityTracker hotCityTracker;
+    private final WeatherWriteBehindBuffer writeBehindBuffer;
+    private final WeatherObservationIndex observationIndex;
+    private final WeatherDictionary dictionary;
+    private final WeatherHotStore hotStore;
+    private final ExecutorService fanOutExecutor;
+    private final CircuitBreaker circuitBreaker;
+    private final OpenWeatherQuotaGovernor quotaGovernor;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<String, WeatherDTO> inFlightLookups = new SingleFlight<>();
+    private final int bulkMaxCities;
     private final String apiKey;
 
 
-    public WeatherService(WeatherClient weatherClient, WeatherRepository weatherRepository, WeatherMapper mapper, @Value("${openweather.api.key}") String apiKey) {
+    public WeatherService(WeatherClient weatherClient, WeatherRepository weatherRepository, WeatherMapper mapper,
+                          WeatherCache weatherCache, WeatherNegativeCache negativeCache, HotCityTracker hotCityTracker, WeatherWriteBehindBuffer writeBehindBuffer,
+                          WeatherObservationIndex observationIndex, WeatherDictionary dictionary, WeatherHotStore hotStore,
+                          @Qualifier("weatherFanOutExecutor") ExecutorService fanOutExecutor,
+                          CircuitBreakerRegistry circuitBreakerRegistry, OpenWeatherQuotaGovernor quotaGovernor,
+                          MeterRegistry meterRegistry,
+                          @Value("${weather.bulk.max-cities:100}") int bulkMaxCities,
+                          @Value("${openweather.api.key}") String apiKey) {
         this.weatherClient = weatherClient;
         this.weatherRepository = weatherRepository;
         this.mapper = mapper;
+        this.weatherCache = weatherCache;
+        this.negativeCache = negativeCache;
+        this.hotCityTracker = hotCityTracker;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.observationIndex = observationIndex;
+        this.dictionary = dictionary;
+        this.hotStore = hotStore;
+        this.fanOutExecutor = fanOutExecutor;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(OPEN_WEATHER_CIRCUIT_BREAKER);
+        this.quotaGovernor = quotaGovernor;
+        this.meterRegistry = meterRegistry;
+        this.bulkMaxCities = bulkMaxCities;
         this.apiKey = apiKey;
+        writeBehindBuffer.onFailure(this::discardUnsaved);
     }
 
     public WeatherDTO getWeather(String city) {
         String formattedCity = formatCityName(city);
+        rejectIfKnownMissing(formattedCity);
+        hotCityTracker.record(formattedCity);
+
+        Optional<WeatherDTO> cached = weatherCache.get(formattedCity);
+        if (cached.isPresent()) {
+            log.debug("[WeatherService:getWeather] Dados de clima para '{}' servidos do cache", formattedCity);
+            return cached.get();
+        }
+
         log.info("[WeatherService:getWeather] Buscando dados de clima para '{}'", formattedCity);
+        return loadWeather(formattedCity, Priority.USER, true);
+    }
+
+    public WeatherDTO refreshWeather(String city) {
+        return refreshWeather(city, Priority.USER);
+    }
+
+    public WeatherDTO refreshWeather(String city, Priority priority) {
+        String formattedCity = formatCityName(city);
+        log.info("[WeatherService:refreshWeather] Ignorando cache e buscando dados de clima para '{}'", formattedCity);
+        return loadWeather(formattedCity, priority, false);
+    }
+
+    /**
+     * Consulta ao OpenWeather compartilhada (single-flight) por /current, refresh e /current/bulk. O resultado é
+     * sempre uma leitura nova ou uma exceção: o fallback degradado, a gravação e o cache ficam com cada chamador,
+     * para que quem entra na consulta de outro receba o mesmo tratamento que teria sozinho.
+     */
+    private WeatherDTO fetchShared(String formattedCity, Priority priority, boolean acceptCached) {
+        return inFlightLookups.execute(formattedCity, () -> {
+            Optional<WeatherDTO> cached = acceptCached ? weatherCache.peek(formattedCity) : Optional.empty();
+            return cached.orElseGet(() -> fetchWeatherFromApi(formattedCity, priority));
+        });
+    }
 
-        WeatherDTO weatherDTO = fetchWeatherFromApi(formattedCity);
+    private WeatherDTO loadWeather(String formattedCity, Priority priority, boolean acceptCached) {
+        WeatherDTO weatherDTO;
+        try {
+            weatherDTO = fetchShared(formattedCity, priority, acceptCached);
+        } catch (WeatherException e) {
+            if (priority == Priority.BACKGROUND) {
+                throw e;
+            }
+            return degradedFallback(formattedCity, e).orElseThrow(() -> e);
+        }
+        // os demais participantes da mesma consulta encontram a observação já registrada e não a gravam de novo
         persistWeatherData(weatherDTO);
+        weatherCache.put(formattedCity, weatherDTO);
 
         return weatherDTO;
     }
 
+    public BulkWeatherDTO getWeatherBulk(List<String> cities) {
+        if (cities == null || cities.isEmpty()) {
+            throw new WeatherException("Informe ao menos uma cidade", HttpStatus.BAD_REQUEST);
+        }
+        if (cities.size() > bulkMaxCities) {
+            throw new WeatherException("Máximo de " + bulkMaxCities + " cidades por requisição", HttpStatus.BAD_REQUEST);
+        }
+
+        Map<String, WeatherDTO> results = new LinkedHashMap<>();
+        Map<String, ErrorResponseDTO> errors = new LinkedHashMap<>();
+        Map<String, Future<WeatherDTO>> pending = new LinkedHashMap<>();
+
+        for (String city : cities) {
+            String formattedCity;
+            try {
+                formattedCity = formatCityName(city);
+                if (!CITY_NAME.matcher(city).matches()) {
+                    throw new WeatherException("O nome da cidade contém caracteres inválidos.", HttpStatus.BAD_REQUEST);
+                }
+            } catch (WeatherException e) {
+                errors.put(String.valueOf(city), toError(e));
+                continue;
+            }
+            if (results.containsKey(formattedCity) || pending.containsKey(formattedCity) || errors.containsKey(formattedCity)) {
+                continue;
+            }
+            try {
+                rejectIfKnownMissing(formattedCity);
+            } catch (WeatherException e) {
+                errors.put(formattedCity, toError(e));
+                continue;
+            }
+            hotCityTracker.record(formattedCity);
+            Optional<WeatherDTO> cached = weatherCache.get(formattedCity);
+            if (cached.isPresent()) {
+                results.put(formattedCity, cached.get());
+            } else {
+                // compartilha a consulta com /current e outras requisições em lote da mesma cidade
+                pending.put(formattedCity, fanOutExecutor.submit(() -> fetchShared(formattedCity, Priority.USER, true)));
+            }
+        }
+        log.info("[WeatherService:getWeatherBulk] {} cidades solicitadas, {} do cache, {} consultadas na API",
+                cities.size(), results.size(), pending.size());
+
+        Map<String, WeatherDTO> fetched = new LinkedHashMap<>();
+        pending.forEach((formattedCity, future) -> {
+            try {
+                WeatherDTO weatherDTO = future.get();
+                results.put(formattedCity, weatherDTO);
+                fetched.put(formattedCity, weatherDTO);
+            } catch (ExecutionException e) {
+                WeatherException cause = e.getCause() instanceof WeatherException weatherException
+                        ? weatherException
+                        : new WeatherException("Falha ao consultar a API OpenWeather", HttpStatus.BAD_GATEWAY);
+                degradedFallback(formattedCity, cause).ifPresentOrElse(
+                        stale -> results.put(formattedCity, stale),
+                        () -> errors.put(formattedCity, toError(cause)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                errors.put(formattedCity, toError(new WeatherException("Consulta interrompida", HttpStatus.SERVICE_UNAVAILABLE)));
+            }
+        });
+
+        persistWeatherBatch(List.copyOf(fetched.values()));
+        fetched.forEach(weatherCache::put);
+        return new BulkWeatherDTO(results, errors);
+    }
+
+    private ErrorResponseDTO toError(WeatherException e) {
+        meterRegistry.counter("weather.exceptions", "status", String.valueOf(e.getStatusCode().value())).increment();
+        return new ErrorResponseDTO(e.getMessage(), LocalDateTime.now(), e.getStatusCode().value());
+    }
+
     public WeatherDTO fetchWeatherFromApi(String city) {
+        return fetchWeatherFromApi(city, Priority.USER);
+    }
+
+    private WeatherDTO fetchWeatherFromApi(String city, Priority priority) {
+        rejectIfKnownMissing(city);
         try {
-            OpenWeatherResponse response = weatherClient.getWeather(city, apiKey, "metric");
+            OpenWeatherResponse response = callOpenWeather(city, priority);
             if (response == null) {
                 throw new WeatherException("Resposta vazia do OpenWeather", HttpStatus.BAD_GATEWAY);
             }
             return mapper.fromResponse(response);
+        } catch (CallNotPermittedException e) {
+            log.debug("[WeatherService:fetchWeatherFromApi] Circuit breaker aberto, OpenWeather não consultado para '{}'", city);
+            throw new WeatherException("API OpenWeather temporariamente indisponível", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (FeignException.TooManyRequests e) {
+            log.warn("[WeatherService:fetchWeatherFromApi] OpenWeather recusou a consulta para '{}' por limite de cota", city);
+            throw new WeatherException("Cota da API OpenWeather esgotada", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (FeignException.NotFound | FeignException.BadRequest e) {
+            HttpStatus status = HttpStatus.valueOf(e.status());
+            negativeCache.put(city, status);
+            log.info("[WeatherService:fetchWeatherFromApi] OpenWeather recusou a cidade '{}' (status {})", city, e.status());
+            throw cityRejected(city, status);
         } catch (FeignException e) {
+            log.warn("[WeatherService:fetchWeatherFromApi] Falha ao consultar OpenWeather para '{}' (status {}): {}", city, e.status(), e.getMessage());
             throw new WeatherException("Falha ao consultar a API OpenWeather", HttpStatus.BAD_GATEWAY);
         }
     }
 
+    /** Responde localmente, com o status original, cidades recusadas pelo OpenWeather há pouco tempo. */
+    private void rejectIfKnownMissing(String city) {
+        Optional<HttpStatus> rejected = negativeCache.get(city);
+        if (rejected.isPresent()) {
+            log.debug("[WeatherService:rejectIfKnownMissing] Cidade '{}' recusada recentemente pelo OpenWeather", city);
+            throw cityRejected(city, rejected.get());
+        }
+    }
+
+    private static WeatherException cityRejected(String city, HttpStatus status) {
+        return status == HttpStatus.NOT_FOUND
+                ? new WeatherException("Cidade '" + city + "' não encontrada", HttpStatus.NOT_FOUND)
+                : new WeatherException("Nome de cidade inválido: '" + city + "'", status);
+    }
+
+    /**
+     * Chamada ao OpenWeather pelo circuit breaker, cronometrada em {@code weather.upstream.requests}
+     * com o resultado e o status HTTP da resposta. O circuito é consultado antes da cota: uma chamada
+     * barrada pelo circuit breaker não consome token do {@link OpenWeatherQuotaGovernor}.
+     */
+    private OpenWeatherResponse callOpenWeather(String city, Priority priority) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            sample.stop(upstreamTimer("SHORT_CIRCUITED", "NONE"));
+            throw e;
+        }
+        if (!quotaGovernor.tryAcquire(priority)) {
+            circuitBreaker.releasePermission();
+            throw new WeatherException("Cota da API OpenWeather esgotada", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        String outcome = "SUCCESS";
+        String status = "200";
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            OpenWeatherResponse response = weatherClient.getWeather(city, apiKey, "metric");
+            circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), response);
+            return response;
+        } catch (FeignException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            status = e.status() > 0 ? String.valueOf(e.status()) : "IO_ERROR";
+            outcome = e.status() >= 500 ? "SERVER_ERROR" : e.status() >= 400 ? "CLIENT_ERROR" : "UNKNOWN";
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            outcome = "UNKNOWN";
+            status = "NONE";
+            throw e;
+        } finally {
+            sample.stop(upstreamTimer(outcome, status));
+        }
+    }
+
+    private Timer upstreamTimer(String outcome, String status) {
+        return Timer.builder("weather.upstream.requests")
+                .description("Chamadas ao OpenWeather")
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Quando o OpenWeather falha (5xx, cota esgotada ou circuit breaker aberto), devolve o valor ainda em cache
+     * ou, na falta dele, o último registro salvo da cidade, marcado como desatualizado e com a sua idade.
+     * Esse registro não é cacheado nem persistido novamente.
+     */
+    private Optional<WeatherDTO> degradedFallback(String formattedCity, WeatherException cause) {
+        if (!cause.getStatusCode().is5xxServerError()) {
+            return Optional.empty();
+        }
+        Optional<WeatherDTO> cached = weatherCache.peek(formattedCity);
+        if (cached.isPresent()) {
+            log.warn("[WeatherService:degradedFallback] OpenWeather indisponível ({}), servindo '{}' do cache", cause.getMessage(), formattedCity);
+            return cached;
+        }
+        Optional<WeatherDTO> stale = dictionary.findCity(formattedCity)
+                .flatMap(known -> latestStored(known.id()))
+                .map(dto -> dto.asStale(dto.getDateTime() != null
+                        ? Duration.between(dto.getDateTime(), LocalDateTime.now())
+                        : Duration.ZERO));
+        stale.ifPresent(dto -> log.warn("[WeatherService:degradedFallback] OpenWeather indisponível ({}), servindo dado salvo de '{}' com {}s de idade",
+                cause.getMessage(), formattedCity, dto.getAgeSeconds()));
+        return stale;
+    }
+
     private void persistWeatherData(WeatherDTO dto) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String operation = "save";
+        String outcome = "SUCCESS";
+        WeatherEntity entity = null;
         try {
-            WeatherEntity entity = mapper.toEntity(dto);
+            entity = mapper.toEntity(dto);
+            if (!observationIndex.markIfNew(entity.getCityId(), entity.getTimestamp())) {
+                operation = "skip";
+                log.debug("[WeatherService:persistWeatherData] Observação de '{}' em {} já gravada, ignorando", dto.getCity(), entity.getTimestamp());
+                return;
+            }
+            if (writeBehindBuffer.enqueue(entity)) {
+                operation = "enqueue";
+                hotStore.record(entity);
+                log.debug("[WeatherService:persistWeatherData] Dados de clima para '{}' enfileirados para gravação em lote", dto.getCity());
+                return;
+            }
             weatherRepository.save(entity);
-            log.info("[WeatherService:persistWeatherData] Dados de clima salvos no banco para '{}'", entity.getCity());
+            hotStore.record(entity);
+            log.info("[WeatherService:persistWeatherData] Dados de clima salvos no banco para '{}'", dto.getCity());
         } catch (Exception e) {
+            outcome = "ERROR";
+            if (entity != null) {
+                observationIndex.forget(entity.getCityId(), entity.getTimestamp());
+            }
             log.error("[WeatherService:persistWeatherData] Falha ao salvar dados de clima para '{}': {}", dto.getCity(), e.getMessage(), e);
             throw new WeatherException(
                     "Erro ao persistir dados de clima para " + dto.getCity(),
                     HttpStatus.INTERNAL_SERVER_ERROR
             );
+        } finally {
+            sample.stop(persistenceTimer(meterRegistry, operation, outcome));
         }
     }
 
+    private void persistWeatherBatch(List<WeatherDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+        List<WeatherEntity> synchronous = new ArrayList<>();
+        for (WeatherEntity entity : dtos.stream().map(mapper::toEntity).toList()) {
+            if (!observationIndex.markIfNew(entity.getCityId(), entity.getTimestamp())) {
+                continue;
+            }
+            if (writeBehindBuffer.enqueue(entity)) {
+                hotStore.record(entity);
+            } else {
+                synchronous.add(entity);
+            }
+        }
+        if (synchronous.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            weatherRepository.saveAll(synchronous);
+            synchronous.forEach(hotStore::record);
+            log.info("[WeatherService:persistWeatherBatch] {} registros de clima salvos em lote", synchronous.size());
+        } catch (Exception e) {
+            outcome = "ERROR";
+            synchronous.forEach(entity -> observationIndex.forget(entity.getCityId(), entity.getTimestamp()));
+            log.error("[WeatherService:persistWeatherBatch] Falha ao salvar lote de {} registros de clima: {}", synchronous.size(), e.getMessage(), e);
+            throw new WeatherException("Erro ao persistir dados de clima em lote", HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            sample.stop(persistenceTimer(meterRegistry, "save-batch", outcome));
+        }
+    }
+
+    // registro enfileirado que a gravação em lote não conseguiu salvar: a observação deve poder ser gravada de novo
+    private void discardUnsaved(WeatherEntity entity) {
+        observationIndex.forget(entity.getCityId(), entity.getTimestamp());
+        hotStore.evict(entity);
+    }
+
+    static Timer persistenceTimer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("weather.persistence")
+                .description("Gravação dos registros de clima")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
     public List<WeatherDTO> getAllWeather(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
         return weatherRepository.findAll(pageable).stream()
@@ -77,23 +433,92 @@ public class WeatherService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public WeatherPageDTO getWeatherPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new WeatherException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+
+        List<WeatherEntity> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = weatherRepository.findFirstPage(size + 1);
+        } else {
+            WeatherCursor position = WeatherCursor.decode(cursor);
+            rows = weatherRepository.findPageBefore(position.timestamp(), position.id(), size + 1);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<WeatherEntity> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? WeatherCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        return new WeatherPageDTO(page.stream().map(mapper::toDTO).toList(), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
     public List<WeatherDTO> getWeatherByCity(String city) {
+        return dictionary.findCity(formatCityName(city))
+                .map(known -> hotStore.range(known.id(), MIN_TIMESTAMP, MAX_TIMESTAMP)
+                        .orElseGet(() -> weatherRepository.findByCityId(known.id()).stream()
+                                .map(mapper::toDTO)
+                                .toList()))
+                .orElse(List.of());
+    }
+
+    /**
+     * Histórico da cidade entre {@code from} (inclusivo) e {@code to} (exclusivo); limites ausentes ficam abertos.
+     * Períodos recentes vêm do {@link WeatherHotStore}; nos demais, apenas as partições mensais do período são lidas.
+     */
+    @Transactional(readOnly = true)
+    public List<WeatherDTO> getWeatherByCity(String city, LocalDateTime from, LocalDateTime to) {
         String formattedCity = formatCityName(city);
-        return weatherRepository.findByCityIgnoreCase(city.trim()).stream()
-                .map(mapper::toDTO)
-                .toList();
+        LocalDateTime start = from != null ? from : MIN_TIMESTAMP;
+        LocalDateTime end = to != null ? to : MAX_TIMESTAMP;
+        if (!start.isBefore(end)) {
+            throw new WeatherException("O parâmetro 'from' deve ser anterior a 'to'.", HttpStatus.BAD_REQUEST);
+        }
+        return dictionary.findCity(formattedCity)
+                .map(known -> hotStore.range(known.id(), start, end)
+                        .orElseGet(() -> weatherRepository.findByCityIdBetween(known.id(), start, end).stream()
+                                .map(mapper::toDTO)
+                                .toList()))
+                .orElse(List.of());
     }
 
+    /**
+     * Horário da observação mais recente gravada para a cidade, usado como versão nas requisições condicionais.
+     * Consulta primeiro o índice em memória; na falta dele, lê apenas max(timestamp) do banco.
+     */
+    public Optional<LocalDateTime> getLatestObservation(String city) {
+        Optional<WeatherDictionary.City> known = dictionary.findCity(formatCityName(city));
+        if (known.isEmpty()) {
+            return Optional.empty();
+        }
+        int cityId = known.get().id();
+        Optional<LocalDateTime> indexed = observationIndex.lastObservation(cityId);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+        Optional<LocalDateTime> stored = weatherRepository.findLatestTimestampByCityId(cityId);
+        stored.ifPresent(observedAt -> observationIndex.remember(cityId, observedAt));
+        return stored;
+    }
+
+    @Transactional(readOnly = true)
     public WeatherDTO getLatestWeatherByCityOrThrow(String city) {
-        return weatherRepository.findFirstByCityIgnoreCaseOrderByTimestampDesc(city.trim())
-                .map(mapper::toDTO)
+        return dictionary.findCity(formatCityName(city))
+                .flatMap(known -> latestStored(known.id()))
                 .orElseThrow(() -> new WeatherException(
                         "Nenhum registro encontrado para a cidade " + city,
                         HttpStatus.NOT_FOUND
                 ));
     }
 
-    private String formatCityName(String city) {
+    private Optional<WeatherDTO> latestStored(int cityId) {
+        return hotStore.latest(cityId)
+                .or(() -> weatherRepository.findLatestByCityId(cityId).map(mapper::toDTO));
+    }
+
+    static String formatCityName(String city) {
         if (city == null || city.trim().isEmpty()) {
             throw new WeatherException("O nome da cidade não pode ser nulo ou vazio", HttpStatus.BAD_REQUEST);
         }
@@ -0,0 +1,56 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.mapper.WeatherMapper;
+import com.gntech.challenge.weatherapi.repository.WeatherRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Leitura em streaming do histórico de uma cidade: as linhas são lidas por cursor JDBC e entregues
+ * uma a uma, sem materializar a lista completa em memória.
+ */
+@Service
+@Slf4j
+public class WeatherStreamService {
+
+    private final WeatherRepository weatherRepository;
+    private final WeatherMapper mapper;
+    private final WeatherDictionary dictionary;
+    private final EntityManager entityManager;
+
+    public WeatherStreamService(WeatherRepository weatherRepository, WeatherMapper mapper, WeatherDictionary dictionary,
+                                EntityManager entityManager) {
+        this.weatherRepository = weatherRepository;
+        this.mapper = mapper;
+        this.dictionary = dictionary;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public long streamWeatherByCity(String city, Consumer<WeatherDTO> consumer) {
+        Optional<WeatherDictionary.City> known = dictionary.findCity(WeatherService.formatCityName(city));
+        if (known.isEmpty()) {
+            log.info("[WeatherStreamService:streamWeatherByCity] Nenhum registro para '{}'", city);
+            return 0;
+        }
+        long count = 0;
+        try (Stream<WeatherEntity> rows = weatherRepository.streamByCityId(known.get().id())) {
+            for (WeatherEntity entity : (Iterable<WeatherEntity>) rows::iterator) {
+                consumer.accept(mapper.toDTO(entity));
+                // evita que o contexto de persistência acumule todas as entidades lidas
+                entityManager.detach(entity);
+                count++;
+            }
+        }
+        log.info("[WeatherStreamService:streamWeatherByCity] {} registros enviados para '{}'", count, city);
+        return count;
+    }
+}
@@ -0,0 +1,397 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.ErrorResponseDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.exception.WeatherException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assinaturas de clima por Server-Sent Events. Cada cidade assinada é verificada uma vez por
+ * {@code poll-interval}, independentemente do número de assinantes, e cada observação nova é repassada
+ * a todos eles. A leitura do {@link WeatherCache} é usada enquanto não expira antes do próximo ciclo; só
+ * então o OpenWeather é consultado. Uma cidade recusada pelo OpenWeather (4xx) gera um evento de erro e
+ * deixa de ser consultada. O envio a cada conexão é feito fora do ciclo de consulta: um cliente lento acumula no
+ * máximo a leitura mais recente de cada uma das suas cidades, e as intermediárias são descartadas.
+ */
+@Service
+@Slf4j
+public class WeatherSubscriptionService {
+
+    static final String EVENT_NAME = "weather";
+    static final String ERROR_EVENT_NAME = "error";
+
+    private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
+    private final Executor pollExecutor;
+    private final Executor sendExecutor;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final int maxCitiesPerSubscriber;
+    private final Map<String, Set<Subscriber>> subscribersByCity = new ConcurrentHashMap<>();
+    private final Map<String, WeatherDTO> lastPublished = new ConcurrentHashMap<>();
+    private final Set<String> polling = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter publishedCounter;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public WeatherSubscriptionService(WeatherService weatherService, WeatherCache weatherCache,
+                                      @Qualifier("weatherSubscriptionPollExecutor") Executor pollExecutor,
+                                      @Value("${weather.subscriptions.enabled:true}") boolean enabled,
+                                      @Value("${weather.subscriptions.poll-interval:PT1M}") Duration pollInterval,
+                                      @Value("${weather.subscriptions.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                                      @Value("${weather.subscriptions.timeout:PT30M}") Duration timeout,
+                                      @Value("${weather.subscriptions.max-subscribers:1000}") int maxSubscribers,
+                                      @Value("${weather.subscriptions.max-cities-per-subscriber:20}") int maxCitiesPerSubscriber,
+                                      MeterRegistry meterRegistry) {
+        // uma thread virtual por envio: uma conexão lenta bloqueia apenas o próprio envio
+        this(weatherService, weatherCache, pollExecutor, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-sse-", 1).factory()),
+                enabled, pollInterval, heartbeatInterval, timeout, maxSubscribers, maxCitiesPerSubscriber, meterRegistry);
+    }
+
+    WeatherSubscriptionService(WeatherService weatherService, WeatherCache weatherCache, Executor pollExecutor, Executor sendExecutor,
+                               boolean enabled, Duration pollInterval, Duration heartbeatInterval, Duration timeout,
+                               int maxSubscribers, int maxCitiesPerSubscriber, MeterRegistry meterRegistry) {
+        this.weatherService = weatherService;
+        this.weatherCache = weatherCache;
+        this.pollExecutor = pollExecutor;
+        this.sendExecutor = sendExecutor;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.maxCitiesPerSubscriber = maxCitiesPerSubscriber;
+        this.publishedCounter = meterRegistry.counter("weather.subscriptions.events");
+        this.coalescedCounter = meterRegistry.counter("weather.subscriptions.coalesced");
+        this.rejectedCounter = meterRegistry.counter("weather.subscriptions.rejected");
+        meterRegistry.gauge("weather.subscriptions.active", subscriberCount);
+        meterRegistry.gauge("weather.subscriptions.cities", subscribersByCity, Map::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-subscriptions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollCycle, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("[WeatherSubscriptionService] Assinaturas habilitadas (poll-interval={}, heartbeat-interval={}, max-subscribers={})",
+                pollInterval, heartbeatInterval, maxSubscribers);
+    }
+
+    public SseEmitter subscribe(List<String> cities) {
+        if (!enabled) {
+            throw new WeatherException("Assinaturas de clima desabilitadas", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (cities == null || cities.isEmpty()) {
+            throw new WeatherException("Informe ao menos uma cidade", HttpStatus.BAD_REQUEST);
+        }
+        Set<String> formattedCities = new LinkedHashSet<>();
+        cities.forEach(city -> formattedCities.add(WeatherService.formatCityName(city)));
+        if (formattedCities.size() > maxCitiesPerSubscriber) {
+            throw new WeatherException("Máximo de " + maxCitiesPerSubscriber + " cidades por assinatura", HttpStatus.BAD_REQUEST);
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejectedCounter.increment();
+            throw new WeatherException("Limite de " + maxSubscribers + " assinaturas simultâneas atingido",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, formattedCities);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        for (String city : subscriber.cities) {
+            boolean firstSubscriber = subscribersByCity.compute(city, (key, subscribers) -> {
+                Set<Subscriber> updated = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                updated.add(subscriber);
+                return updated;
+            }).size() == 1;
+            WeatherDTO last = lastPublished.get(city);
+            if (last != null) {
+                subscriber.offer(city, last);
+            } else if (firstSubscriber && scheduler != null) {
+                // cidade nova: primeira leitura sem esperar o próximo ciclo
+                poll(city);
+            }
+        }
+        log.info("[WeatherSubscriptionService:subscribe] Nova assinatura para {} ({} assinaturas ativas)",
+                subscriber.cities, subscriberCount.get());
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.close()) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        for (String city : subscriber.cities) {
+            subscribersByCity.computeIfPresent(city, (key, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            if (!subscribersByCity.containsKey(city)) {
+                lastPublished.remove(city);
+            }
+        }
+        log.debug("[WeatherSubscriptionService:unsubscribe] Assinatura de {} encerrada", subscriber.cities);
+    }
+
+    /** Consulta cada cidade assinada uma vez; cidades cuja consulta anterior ainda não terminou ficam para o próximo ciclo. */
+    void pollCycle() {
+        try {
+            subscribersByCity.keySet().forEach(this::poll);
+        } catch (Exception e) {
+            log.error("[WeatherSubscriptionService:pollCycle] Falha no ciclo de consulta: {}", e.getMessage(), e);
+        }
+    }
+
+    private void poll(String city) {
+        if (!polling.add(city)) {
+            return;
+        }
+        try {
+            pollExecutor.execute(() -> {
+                try {
+                    publish(city, currentReading(city));
+                } catch (WeatherException e) {
+                    if (e.getStatusCode().is4xxClientError()) {
+                        reject(city, e);
+                    } else {
+                        log.warn("[WeatherSubscriptionService:poll] Falha ao consultar '{}': {}", city, e.getMessage());
+                    }
+                } catch (Exception e) {
+                    log.warn("[WeatherSubscriptionService:poll] Falha ao consultar '{}': {}", city, e.getMessage());
+                } finally {
+                    polling.remove(city);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            polling.remove(city);
+            log.warn("[WeatherSubscriptionService:poll] Fila de consultas cheia, '{}' fica para o próximo ciclo", city);
+        }
+    }
+
+    // a leitura em cache serve enquanto não expira antes do próximo ciclo
+    private WeatherDTO currentReading(String city) {
+        return weatherCache.timeToExpiry(city)
+                .filter(remaining -> remaining.compareTo(pollInterval) > 0)
+                .flatMap(remaining -> weatherCache.peek(city))
+                .orElseGet(() -> weatherService.refreshWeather(city, OpenWeatherQuotaGovernor.Priority.BACKGROUND));
+    }
+
+    /** Avisa os assinantes de uma cidade recusada pelo OpenWeather e deixa de consultá-la. */
+    private void reject(String city, WeatherException e) {
+        Set<Subscriber> subscribers = subscribersByCity.remove(city);
+        lastPublished.remove(city);
+        if (subscribers == null) {
+            return;
+        }
+        log.info("[WeatherSubscriptionService:reject] Cidade '{}' recusada pelo OpenWeather (status {}), removida de {} assinaturas",
+                city, e.getStatusCode().value(), subscribers.size());
+        ErrorResponseDTO error = new ErrorResponseDTO(e.getMessage(), LocalDateTime.now(), e.getStatusCode().value());
+        subscribers.forEach(subscriber -> subscriber.offer(city, error));
+    }
+
+    /** Repassa a leitura aos assinantes da cidade se ela trouxer uma observação diferente da última enviada. */
+    void publish(String city, WeatherDTO weather) {
+        Set<Subscriber> subscribers = subscribersByCity.get(city);
+        if (subscribers == null) {
+            return;
+        }
+        WeatherDTO previous = lastPublished.put(city, weather);
+        if (previous != null && Objects.equals(previous.getDateTime(), weather.getDateTime())) {
+            return;
+        }
+        subscribers.forEach(subscriber -> subscriber.offer(city, weather));
+    }
+
+    void sendHeartbeats() {
+        subscribersByCity.values().stream()
+                .flatMap(Set::stream)
+                .distinct()
+                .forEach(Subscriber::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        subscribersByCity.values().stream().flatMap(Set::stream).distinct().forEach(subscriber -> subscriber.emitter.complete());
+        if (sendExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Uma conexão SSE. As leituras (ou erros) pendentes ficam em um mapa por cidade (no máximo um por cidade) e
+     * são enviados por uma única tarefa de envio por vez, na ordem em que chegaram. A conexão é encerrada quando
+     * todas as suas cidades foram recusadas.
+     */
+    final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> cities;
+        private final Map<String, Object> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean sending;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<String> cities) {
+            this.emitter = emitter;
+            this.cities = cities;
+        }
+
+        /** Enfileira um {@link WeatherDTO} ou o {@link ErrorResponseDTO} da cidade. */
+        void offer(String city, Object payload) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                // cliente ainda não recebeu a leitura anterior desta cidade: só a mais recente é enviada
+                if (pending.put(city, payload) != null) {
+                    coalescedCounter.increment();
+                }
+            }
+            scheduleSend();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed || sending) {
+                    return;
+                }
+                heartbeatDue = true;
+            }
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            synchronized (this) {
+                if (sending || closed) {
+                    return;
+                }
+                sending = true;
+            }
+            sendExecutor.execute(this::sendPending);
+        }
+
+        private void sendPending() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean orphaned = false;
+                synchronized (this) {
+                    event = nextEvent();
+                    if (event == null) {
+                        sending = false;
+                        orphaned = !closed && cities.stream().noneMatch(this::isSubscribed);
+                    }
+                }
+                if (event == null) {
+                    if (orphaned) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (Exception e) {
+                    // falha de escrita: o contêiner encerra a requisição assíncrona e chama onError
+                    log.debug("[WeatherSubscriptionService:sendPending] Conexão de {} encerrada: {}", cities, e.getMessage());
+                    synchronized (this) {
+                        sending = false;
+                    }
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+
+        private boolean isSubscribed(String city) {
+            Set<Subscriber> subscribers = subscribersByCity.get(city);
+            return subscribers != null && subscribers.contains(this);
+        }
+
+        private SseEmitter.SseEventBuilder nextEvent() {
+            if (closed) {
+                return null;
+            }
+            Iterator<Map.Entry<String, Object>> next = pending.entrySet().iterator();
+            if (next.hasNext()) {
+                Object payload = next.next().getValue();
+                next.remove();
+                heartbeatDue = false;
+                if (payload instanceof ErrorResponseDTO error) {
+                    return SseEmitter.event().name(ERROR_EVENT_NAME).data(error, MediaType.APPLICATION_JSON);
+                }
+                publishedCounter.increment();
+                return SseEmitter.event().name(EVENT_NAME).data(payload, MediaType.APPLICATION_JSON);
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return null;
+        }
+
+        /** Marca a conexão como encerrada; retorna {@code false} se ela já estava. */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            return true;
+        }
+    }
+}
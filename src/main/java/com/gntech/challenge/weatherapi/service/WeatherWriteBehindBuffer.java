@@ -0,0 +1,199 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.repository.WeatherRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Persistência assíncrona (write-behind) dos registros de clima.
+ * Os registros entram em uma fila limitada e são gravados em lote quando a fila atinge
+ * {@code batch-size} ou quando o intervalo de flush expira.
+ */
+@Component
+@Slf4j
+public class WeatherWriteBehindBuffer {
+
+    private final WeatherRepository weatherRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final BlockingQueue<WeatherEntity> queue;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private volatile boolean shuttingDown;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+    private final Timer flushTimer;
+    private final Timer flushFailureTimer;
+    private volatile Consumer<WeatherEntity> failureListener = entity -> { };
+
+    public WeatherWriteBehindBuffer(WeatherRepository weatherRepository,
+                                    @Value("${weather.persistence.write-behind.enabled:false}") boolean enabled,
+                                    @Value("${weather.persistence.write-behind.capacity:10000}") int capacity,
+                                    @Value("${weather.persistence.write-behind.batch-size:50}") int batchSize,
+                                    @Value("${weather.persistence.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                                    @Value("${weather.persistence.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout,
+                                    MeterRegistry meterRegistry) {
+        this.weatherRepository = weatherRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.flushedCounter = meterRegistry.counter("weather.write-behind.flushed");
+        this.failedCounter = meterRegistry.counter("weather.write-behind.failed");
+        this.rejectedCounter = meterRegistry.counter("weather.write-behind.rejected");
+        this.flushTimer = WeatherService.persistenceTimer(meterRegistry, "flush", "SUCCESS");
+        this.flushFailureTimer = WeatherService.persistenceTimer(meterRegistry, "flush", "ERROR");
+        Gauge.builder("weather.write-behind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "weather-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            log.info("[WeatherWriteBehindBuffer] Write-behind habilitado (capacity={}, batch-size={}, flush-interval={})",
+                    capacity, batchSize, flushInterval);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enfileira o registro para gravação assíncrona. Retorna {@code false} quando o modo está
+     * desabilitado, o buffer está encerrando ou a fila continua cheia após {@code offer-timeout};
+     * nesse caso o chamador deve persistir de forma síncrona.
+     */
+    public boolean enqueue(WeatherEntity entity) {
+        if (!enabled || shuttingDown) {
+            return false;
+        }
+        try {
+            if (!queue.offer(entity, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                log.warn("[WeatherWriteBehindBuffer:enqueue] Fila de persistência cheia, gravando registro da cidade {} de forma síncrona", entity.getCityId());
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // o encerramento pode ter começado durante o offer: se o registro ainda está na fila,
+        // a gravação final já pode ter passado, então ele volta para o chamador
+        if (shuttingDown && queue.removeIf(queued -> queued == entity)) {
+            return false;
+        }
+
+        if (queue.size() >= batchSize && flushPending.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushPending.set(false);
+                    flushAll();
+                });
+            } catch (RejectedExecutionException e) {
+                flushPending.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chamado, na thread de gravação, para cada registro enfileirado que não pôde ser gravado nem
+     * individualmente, para que quem o enfileirou desfaça o que já considerava gravado.
+     */
+    public void onFailure(Consumer<WeatherEntity> listener) {
+        this.failureListener = listener;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    void flushAll() {
+        List<WeatherEntity> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void flush(List<WeatherEntity> batch) {
+        long start = System.nanoTime();
+        try {
+            weatherRepository.saveAll(batch);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushedCounter.increment(batch.size());
+            log.debug("[WeatherWriteBehindBuffer:flush] {} registros de clima gravados em lote", batch.size());
+        } catch (Exception e) {
+            flushFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("[WeatherWriteBehindBuffer:flush] Falha ao gravar lote de {} registros de clima, gravando um a um: {}",
+                    batch.size(), e.getMessage());
+            saveEach(batch);
+        }
+    }
+
+    /** Regrava o lote registro a registro, para que só os registros com problema sejam perdidos. */
+    private void saveEach(List<WeatherEntity> batch) {
+        int saved = 0;
+        for (WeatherEntity entity : batch) {
+            // o id atribuído na transação desfeita não corresponde a nenhuma linha gravada
+            entity.setId(null);
+            try {
+                weatherRepository.save(entity);
+                saved++;
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("[WeatherWriteBehindBuffer:saveEach] Falha ao gravar registro de clima da cidade {} ({}): {}",
+                        entity.getCityId(), entity.getTimestamp(), e.getMessage(), e);
+                failureListener.accept(entity);
+            }
+        }
+        flushedCounter.increment(saved);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("[WeatherWriteBehindBuffer:shutdown] Gravando {} registros pendentes antes de encerrar", queue.size());
+        flushAll();
+    }
+}
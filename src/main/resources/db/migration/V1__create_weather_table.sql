@@ -0,0 +1,19 @@
+-- Esquema inicial da tabela de clima.
+-- Idempotente para bancos criados anteriormente via ddl-auto=update (baseline-on-migrate).
+
+create table if not exists weather (
+    id          bigint           not null,
+    city        varchar(255),
+    country     varchar(255),
+    temperature double precision,
+    humidity    double precision,
+    wind_speed  double precision,
+    description varchar(255),
+    timestamp   timestamp(6),
+    constraint weather_pkey primary key (id)
+);
+
+create sequence if not exists weather_seq start with 1 increment by 50;
+
+-- Garante que o sequence comece acima dos ids já gerados pela antiga coluna IDENTITY.
+select setval('weather_seq', max(id)) from weather having max(id) is not null;
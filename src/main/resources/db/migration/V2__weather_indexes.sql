@@ -0,0 +1,8 @@
+-- Consultas por cidade (findByCityIgnoreCase / findFirstByCityIgnoreCaseOrderByTimestampDesc)
+-- comparam lower(city) e ordenam por timestamp desc.
+create index if not exists idx_weather_city_lower_timestamp
+    on weather (lower(city), timestamp desc);
+
+-- Paginação de /all (offset e keyset) ordenada por (timestamp, id) desc.
+create index if not exists idx_weather_timestamp_id
+    on weather (timestamp desc, id desc);
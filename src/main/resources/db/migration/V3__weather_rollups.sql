@@ -0,0 +1,76 @@
+-- Agregados de temperatura, umidade e vento por cidade e intervalo (hora, dia e semana ISO).
+-- Mantidos de forma incremental por trigger a cada inserção em weather, de modo que a consulta
+-- de /aggregate lê um registro por intervalo em vez das leituras brutas.
+
+create table if not exists weather_rollup (
+    granularity       varchar(8)       not null,
+    city_key          varchar(255)     not null,
+    city              varchar(255),
+    bucket_start      timestamp(6)     not null,
+    samples           bigint           not null default 0,
+    temperature_count bigint           not null default 0,
+    temperature_sum   double precision not null default 0,
+    temperature_min   double precision,
+    temperature_max   double precision,
+    humidity_count    bigint           not null default 0,
+    humidity_sum      double precision not null default 0,
+    humidity_min      double precision,
+    humidity_max      double precision,
+    wind_speed_count  bigint           not null default 0,
+    wind_speed_sum    double precision not null default 0,
+    wind_speed_min    double precision,
+    wind_speed_max    double precision,
+    constraint weather_rollup_pkey primary key (granularity, city_key, bucket_start)
+);
+
+-- Carga inicial a partir das leituras já existentes.
+insert into weather_rollup (granularity, city_key, city, bucket_start, samples,
+                            temperature_count, temperature_sum, temperature_min, temperature_max,
+                            humidity_count, humidity_sum, humidity_min, humidity_max,
+                            wind_speed_count, wind_speed_sum, wind_speed_min, wind_speed_max)
+select g.granularity, lower(w.city), max(w.city), date_trunc(g.unit, w.timestamp), count(*),
+       count(w.temperature), coalesce(sum(w.temperature), 0), min(w.temperature), max(w.temperature),
+       count(w.humidity), coalesce(sum(w.humidity), 0), min(w.humidity), max(w.humidity),
+       count(w.wind_speed), coalesce(sum(w.wind_speed), 0), min(w.wind_speed), max(w.wind_speed)
+from weather w
+cross join (values ('HOUR', 'hour'), ('DAY', 'day'), ('WEEK', 'week')) as g (granularity, unit)
+where w.city is not null and w.timestamp is not null
+group by g.granularity, lower(w.city), date_trunc(g.unit, w.timestamp)
+on conflict do nothing;
+
+create or replace function weather_rollup_apply() returns trigger as $$
+begin
+    insert into weather_rollup as r (granularity, city_key, city, bucket_start, samples,
+                                     temperature_count, temperature_sum, temperature_min, temperature_max,
+                                     humidity_count, humidity_sum, humidity_min, humidity_max,
+                                     wind_speed_count, wind_speed_sum, wind_speed_min, wind_speed_max)
+    select g.granularity, lower(new.city), new.city, date_trunc(g.unit, new.timestamp), 1,
+           (new.temperature is not null)::int, coalesce(new.temperature, 0), new.temperature, new.temperature,
+           (new.humidity is not null)::int, coalesce(new.humidity, 0), new.humidity, new.humidity,
+           (new.wind_speed is not null)::int, coalesce(new.wind_speed, 0), new.wind_speed, new.wind_speed
+    from (values ('HOUR', 'hour'), ('DAY', 'day'), ('WEEK', 'week')) as g (granularity, unit)
+    on conflict (granularity, city_key, bucket_start) do update set
+        city              = excluded.city,
+        samples           = r.samples + 1,
+        temperature_count = r.temperature_count + excluded.temperature_count,
+        temperature_sum   = r.temperature_sum + excluded.temperature_sum,
+        temperature_min   = least(r.temperature_min, excluded.temperature_min),
+        temperature_max   = greatest(r.temperature_max, excluded.temperature_max),
+        humidity_count    = r.humidity_count + excluded.humidity_count,
+        humidity_sum      = r.humidity_sum + excluded.humidity_sum,
+        humidity_min      = least(r.humidity_min, excluded.humidity_min),
+        humidity_max      = greatest(r.humidity_max, excluded.humidity_max),
+        wind_speed_count  = r.wind_speed_count + excluded.wind_speed_count,
+        wind_speed_sum    = r.wind_speed_sum + excluded.wind_speed_sum,
+        wind_speed_min    = least(r.wind_speed_min, excluded.wind_speed_min),
+        wind_speed_max    = greatest(r.wind_speed_max, excluded.wind_speed_max);
+    return null;
+end;
+$$ language plpgsql;
+
+drop trigger if exists weather_rollup_after_insert on weather;
+create trigger weather_rollup_after_insert
+    after insert on weather
+    for each row
+    when (new.city is not null and new.timestamp is not null)
+    execute function weather_rollup_apply();
@@ -0,0 +1,69 @@
+-- Converte weather em tabela particionada por mês (coluna timestamp).
+-- Partições novas são criadas e as expiradas removidas por WeatherPartitionMaintenance,
+-- usando as funções abaixo. A partição default recebe apenas leituras fora dos meses criados.
+
+alter table weather rename to weather_legacy;
+alter table weather_legacy rename constraint weather_pkey to weather_legacy_pkey;
+alter index if exists idx_weather_city_lower_timestamp rename to idx_weather_legacy_city_lower_timestamp;
+alter index if exists idx_weather_timestamp_id rename to idx_weather_legacy_timestamp_id;
+drop trigger if exists weather_rollup_after_insert on weather_legacy;
+
+-- A chave de partição precisa fazer parte da chave primária.
+create table weather (
+    id          bigint           not null,
+    city        varchar(255),
+    country     varchar(255),
+    temperature double precision,
+    humidity    double precision,
+    wind_speed  double precision,
+    description varchar(255),
+    timestamp   timestamp(6)     not null,
+    constraint weather_pkey primary key (id, timestamp)
+) partition by range (timestamp);
+
+create table weather_default partition of weather default;
+
+-- Cria (se ainda não existir) a partição weather_pAAAAMM do mês que contém p_month.
+create or replace function weather_create_partition(p_month date) returns text as $$
+declare
+    v_start date := date_trunc('month', p_month)::date;
+    v_name  text := 'weather_p' || to_char(v_start, 'YYYYMM');
+begin
+    execute format('create table if not exists %I partition of weather for values from (%L) to (%L)',
+                   v_name, v_start, (v_start + interval '1 month')::date);
+    return v_name;
+end;
+$$ language plpgsql;
+
+-- Partições do mês da leitura mais antiga até três meses à frente do atual.
+do $$
+declare
+    v_month date;
+begin
+    select coalesce(date_trunc('month', min(timestamp))::date, date_trunc('month', now())::date)
+      into v_month
+      from weather_legacy;
+    while v_month <= (date_trunc('month', now()) + interval '3 months')::date loop
+        perform weather_create_partition(v_month);
+        v_month := (v_month + interval '1 month')::date;
+    end loop;
+end;
+$$;
+
+-- Leituras antigas sem timestamp ficam na partição default, fora da política de retenção.
+insert into weather (id, city, country, temperature, humidity, wind_speed, description, timestamp)
+select id, city, country, temperature, humidity, wind_speed, description,
+       coalesce(timestamp, timestamp '1970-01-01 00:00:00')
+from weather_legacy;
+
+drop table weather_legacy;
+
+create index idx_weather_city_lower_timestamp on weather (lower(city), timestamp desc);
+create index idx_weather_timestamp_id on weather (timestamp desc, id desc);
+
+-- Os agregados já contêm as leituras copiadas; o trigger passa a valer só para novas inserções.
+create trigger weather_rollup_after_insert
+    after insert on weather
+    for each row
+    when (new.city is not null)
+    execute function weather_rollup_apply();
@@ -0,0 +1,24 @@
+-- Cada observação do OpenWeather (cidade + horário da observação) passa a ser gravada uma única vez.
+-- Inserções repetidas usam "on conflict do nothing" (ver WeatherEntity) e não disparam o trigger de agregados.
+
+delete from weather w
+using weather d
+where w.city = d.city and w.timestamp = d.timestamp and w.id > d.id;
+
+alter table weather add constraint uk_weather_city_timestamp unique (city, timestamp);
+
+-- Recalcula os agregados sem as linhas duplicadas removidas acima.
+truncate weather_rollup;
+
+insert into weather_rollup (granularity, city_key, city, bucket_start, samples,
+                            temperature_count, temperature_sum, temperature_min, temperature_max,
+                            humidity_count, humidity_sum, humidity_min, humidity_max,
+                            wind_speed_count, wind_speed_sum, wind_speed_min, wind_speed_max)
+select g.granularity, lower(w.city), max(w.city), date_trunc(g.unit, w.timestamp), count(*),
+       count(w.temperature), coalesce(sum(w.temperature), 0), min(w.temperature), max(w.temperature),
+       count(w.humidity), coalesce(sum(w.humidity), 0), min(w.humidity), max(w.humidity),
+       count(w.wind_speed), coalesce(sum(w.wind_speed), 0), min(w.wind_speed), max(w.wind_speed)
+from weather w
+cross join (values ('HOUR', 'hour'), ('DAY', 'day'), ('WEEK', 'week')) as g (granularity, unit)
+where w.city is not null
+group by g.granularity, lower(w.city), date_trunc(g.unit, w.timestamp);
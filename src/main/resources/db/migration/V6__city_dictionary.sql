@@ -0,0 +1,88 @@
+-- Dicionário de cidades e tabela de códigos de descrição. As leituras passam a referenciar a cidade por um
+-- id inteiro e a descrição por um código smallint, em vez de repetir os textos em cada linha; as consultas
+-- por cidade viram buscas por chave inteira, sem lower() sobre a coluna.
+
+create table city (
+    id       integer generated by default as identity primary key,
+    name_key varchar(255) not null,
+    name     varchar(255) not null,
+    country  varchar(255),
+    constraint uk_city_name_key unique (name_key)
+);
+
+create table weather_description (
+    id          smallint generated by default as identity primary key,
+    description varchar(255) not null,
+    constraint uk_weather_description unique (description)
+);
+
+-- Nome e país canônicos: os da leitura mais recente de cada cidade.
+insert into city (name_key, name, country)
+select lower(city),
+       (array_agg(city order by timestamp desc))[1],
+       (array_agg(country order by timestamp desc))[1]
+from weather
+where city is not null
+group by lower(city);
+
+insert into weather_description (description)
+select distinct description from weather where description is not null order by description;
+
+alter table weather add column city_id integer, add column description_id smallint;
+
+update weather w set city_id = c.id from city c where c.name_key = lower(w.city);
+update weather w set description_id = d.id from weather_description d where d.description = w.description;
+
+drop trigger weather_rollup_after_insert on weather;
+alter table weather drop constraint uk_weather_city_timestamp;
+drop index idx_weather_city_lower_timestamp;
+alter table weather drop column city, drop column country, drop column description;
+
+-- O índice da restrição única atende às consultas por cidade ordenadas por timestamp (lido de trás para frente).
+alter table weather add constraint uk_weather_city_timestamp unique (city_id, timestamp);
+alter table weather add constraint fk_weather_city foreign key (city_id) references city (id);
+alter table weather add constraint fk_weather_description foreign key (description_id) references weather_description (id);
+
+-- Agregados passam a ser indexados pelo id da cidade.
+alter table weather_rollup add column city_id integer;
+update weather_rollup r set city_id = c.id from city c where c.name_key = r.city_key;
+delete from weather_rollup where city_id is null;
+alter table weather_rollup drop constraint weather_rollup_pkey;
+alter table weather_rollup drop column city_key, drop column city;
+alter table weather_rollup alter column city_id set not null;
+alter table weather_rollup add constraint weather_rollup_pkey primary key (granularity, city_id, bucket_start);
+
+create or replace function weather_rollup_apply() returns trigger as $$
+begin
+    insert into weather_rollup as r (granularity, city_id, bucket_start, samples,
+                                     temperature_count, temperature_sum, temperature_min, temperature_max,
+                                     humidity_count, humidity_sum, humidity_min, humidity_max,
+                                     wind_speed_count, wind_speed_sum, wind_speed_min, wind_speed_max)
+    select g.granularity, new.city_id, date_trunc(g.unit, new.timestamp), 1,
+           (new.temperature is not null)::int, coalesce(new.temperature, 0), new.temperature, new.temperature,
+           (new.humidity is not null)::int, coalesce(new.humidity, 0), new.humidity, new.humidity,
+           (new.wind_speed is not null)::int, coalesce(new.wind_speed, 0), new.wind_speed, new.wind_speed
+    from (values ('HOUR', 'hour'), ('DAY', 'day'), ('WEEK', 'week')) as g (granularity, unit)
+    on conflict (granularity, city_id, bucket_start) do update set
+        samples           = r.samples + 1,
+        temperature_count = r.temperature_count + excluded.temperature_count,
+        temperature_sum   = r.temperature_sum + excluded.temperature_sum,
+        temperature_min   = least(r.temperature_min, excluded.temperature_min),
+        temperature_max   = greatest(r.temperature_max, excluded.temperature_max),
+        humidity_count    = r.humidity_count + excluded.humidity_count,
+        humidity_sum      = r.humidity_sum + excluded.humidity_sum,
+        humidity_min      = least(r.humidity_min, excluded.humidity_min),
+        humidity_max      = greatest(r.humidity_max, excluded.humidity_max),
+        wind_speed_count  = r.wind_speed_count + excluded.wind_speed_count,
+        wind_speed_sum    = r.wind_speed_sum + excluded.wind_speed_sum,
+        wind_speed_min    = least(r.wind_speed_min, excluded.wind_speed_min),
+        wind_speed_max    = greatest(r.wind_speed_max, excluded.wind_speed_max);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger weather_rollup_after_insert
+    after insert on weather
+    for each row
+    when (new.city_id is not null)
+    execute function weather_rollup_apply();
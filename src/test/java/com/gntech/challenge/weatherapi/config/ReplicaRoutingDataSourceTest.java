@@ -0,0 +1,100 @@
+package com.gntech.challenge.weatherapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock private DataSource primary;
+    @Mock private DataSource replica1;
+    @Mock private DataSource replica2;
+    @Mock private Connection primaryConnection;
+    @Mock private Connection replica1Connection;
+    @Mock private Connection replica2Connection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<DataSource, Double> lags = new HashMap<>();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica1.getConnection()).thenReturn(replica1Connection);
+        lenient().when(replica2.getConnection()).thenReturn(replica2Connection);
+        lags.put(replica1, 0.0);
+        lags.put(replica2, 0.0);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routing = new ReplicaRoutingDataSource(primary, replicas, lags::get, Duration.ofSeconds(5), Duration.ofSeconds(5),
+                meterRegistry);
+        routing.afterPropertiesSet();
+        routing.checkReplicas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_OutsideReadOnlyTransactions() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void getConnection_ShouldRoundRobinReadOnlyTransactionsAcrossReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(List.of(replica1Connection, replica2Connection, replica1Connection),
+                List.of(routing.getConnection(), routing.getConnection(), routing.getConnection()));
+        assertEquals(3, meterRegistry.counter("weather.datasource.reads", "target", "replica").count());
+    }
+
+    @Test
+    void checkReplicas_ShouldSkipLaggingReplicas_AndFallBackToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        lags.put(replica1, 30.0);
+        routing.checkReplicas();
+
+        assertEquals(List.of("replica-2"), routing.healthyReplicas());
+        assertSame(replica2Connection, routing.getConnection());
+        assertEquals(30.0, meterRegistry.get("weather.datasource.replica.lag").tag("replica", "replica-1").gauge().value());
+
+        lags.put(replica2, null);
+        routing.checkReplicas();
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(1, meterRegistry.counter("weather.datasource.reads", "target", "primary").count());
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimary_WhenReplicaRefusesConnection() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(List.of("replica-2"), routing.healthyReplicas());
+        assertSame(replica2Connection, routing.getConnection());
+    }
+}
@@ -0,0 +1,65 @@
+package com.gntech.challenge.weatherapi.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherProtobufHttpMessageConverterTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2025, 11, 7, 10, 0);
+
+    private final WeatherProtobufHttpMessageConverter converter = new WeatherProtobufHttpMessageConverter();
+
+    @Test
+    void writeList_ShouldProduceWeatherListMessageMatchingPublishedSchema() throws Exception {
+        WeatherDTO first = new WeatherDTO("Florianópolis", "BR", 25.3, 70.0, 5.2, "céu limpo", OBSERVED_AT);
+        WeatherDTO second = new WeatherDTO("Recife", "BR", 29.0, null, 3.1, "nublado", OBSERVED_AT)
+                .asStale(Duration.ofMinutes(10));
+
+        byte[] bytes = converter.writeList(List.of(first, second));
+
+        JsonNode items = read(bytes, "WeatherList").get("items");
+        assertEquals(2, items.size());
+        assertEquals("Florianópolis", items.get(0).get("city").asText());
+        assertEquals(5.2, items.get(0).get("windSpeed").asDouble());
+        assertEquals("2025-11-07T10:00:00", items.get(0).get("dateTime").asText());
+        assertFalse(items.get(1).has("humidity"));
+        assertTrue(items.get(1).get("stale").asBoolean());
+        assertEquals(600, items.get(1).get("ageSeconds").asLong());
+    }
+
+    @Test
+    void write_ShouldProduceWeatherMessage() throws Exception {
+        byte[] bytes = converter.write(new WeatherDTO("Recife", "BR", 29.0, 80.0, 3.1, "nublado", OBSERVED_AT));
+
+        assertEquals("Recife", read(bytes, "Weather").get("city").asText());
+    }
+
+    @Test
+    void canWrite_ShouldAcceptOnlyWeatherBodies() {
+        MediaType protobuf = WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+
+        assertTrue(converter.canWrite(WeatherDTO.class, WeatherDTO.class, protobuf));
+        assertTrue(converter.canWrite(new ParameterizedTypeReference<List<WeatherDTO>>() {}.getType(), List.class, protobuf));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<Map<String, Object>>() {}.getType(), Map.class, protobuf));
+        assertFalse(converter.canWrite(WeatherDTO.class, WeatherDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(WeatherDTO.class, null, protobuf));
+    }
+
+    private JsonNode read(byte[] bytes, String rootType) throws Exception {
+        ProtobufSchema schema = ProtobufSchemaLoader.std.parse(converter.getSchema()).withRootType(rootType);
+        return new ProtobufMapper().readerFor(JsonNode.class).with(schema).readValue(bytes);
+    }
+}
@@ -1,20 +1,49 @@
 package com.gntech.challenge.weatherapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.gntech.challenge.weatherapi.config.WeatherProtobufHttpMessageConverter;
+import com.gntech.challenge.weatherapi.dto.BulkWeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherAggregateDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherBucketDTO;
+import com.gntech.challenge.weatherapi.dto.ErrorResponseDTO;
 import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherPageDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import com.gntech.challenge.weatherapi.service.WeatherAggregationService;
 import com.gntech.challenge.weatherapi.service.WeatherService;
+import com.gntech.challenge.weatherapi.service.WeatherStreamService;
+import com.gntech.challenge.weatherapi.service.WeatherSubscriptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,6 +54,18 @@ class WeatherControllerTest {
     @Mock
     private WeatherService weatherService;
 
+    @Mock
+    private WeatherStreamService weatherStreamService;
+
+    @Mock
+    private WeatherAggregationService weatherAggregationService;
+
+    @Mock
+    private WeatherSubscriptionService weatherSubscriptionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private WeatherController weatherController;
 
@@ -102,4 +143,223 @@ class WeatherControllerTest {
         verify(weatherService, times(1)).getLatestWeatherByCityOrThrow("Florianópolis");
     }
 
+    @Test
+    void getAllWeather_withCursor_shouldReturnNextCursorHeader() throws Exception {
+
+        when(weatherService.getWeatherPage("", 2)).thenReturn(new WeatherPageDTO(List.of(dto1, dto2), "next-token"));
+
+        mockMvc.perform(get("/v1/weather/all")
+                        .param("cursor", "")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-token"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(weatherService, times(1)).getWeatherPage("", 2);
+        verify(weatherService, never()).getAllWeather(anyInt(), anyInt());
+    }
+
+    @Test
+    void streamWeatherByCity_shouldWriteOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<WeatherDTO> consumer = invocation.getArgument(1);
+            consumer.accept(dto1);
+            consumer.accept(dto1);
+            return 2L;
+        }).when(weatherStreamService).streamWeatherByCity(eq("Florianópolis"), any());
+
+        MvcResult result = mockMvc.perform(get("/v1/weather/by-city")
+                        .param("city", "Florianópolis")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Florianópolis", objectMapper.readTree(lines[0]).get("city").asText());
+        verify(weatherService, never()).getWeatherByCity(anyString());
+    }
+
+    @Test
+    void getWeatherByCity_withoutNdjsonAccept_shouldReturnJsonList() throws Exception {
+
+        when(weatherService.getWeatherByCity("Florianópolis")).thenReturn(List.of(dto1));
+
+        mockMvc.perform(get("/v1/weather/by-city")
+                        .param("city", "Florianópolis"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verifyNoInteractions(weatherStreamService);
+    }
+
+    @Test
+    void getCurrentWeatherBulk_shouldReturnResultsAndErrorsPerCity() throws Exception {
+        Map<String, WeatherDTO> results = Map.of("Florianópolis", dto1);
+        Map<String, ErrorResponseDTO> errors = Map.of("Xyz", new ErrorResponseDTO("Falha ao consultar a API OpenWeather", LocalDateTime.now(), 502));
+
+        when(weatherService.getWeatherBulk(List.of("Florianópolis", "Xyz"))).thenReturn(new BulkWeatherDTO(results, errors));
+
+        mockMvc.perform(get("/v1/weather/current/bulk")
+                        .param("cities", "Florianópolis,Xyz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results['Florianópolis'].country").value("BR"))
+                .andExpect(jsonPath("$.errors.Xyz.status").value(502));
+    }
+
+    @Test
+    void getWeatherAggregate_shouldReturnBuckets() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 11, 7, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 11, 7, 12, 0);
+        WeatherBucketDTO bucket = new WeatherBucketDTO(from, 2,
+                new WeatherBucketDTO.Metric(24.0, 26.0, 25.0),
+                new WeatherBucketDTO.Metric(70.0, 70.0, 70.0),
+                new WeatherBucketDTO.Metric(null, null, null));
+
+        when(weatherAggregationService.getAggregate("Florianópolis", "HOUR", from, to))
+                .thenReturn(new WeatherAggregateDTO("Florianópolis", WeatherGranularity.HOUR, from, to, List.of(bucket)));
+
+        mockMvc.perform(get("/v1/weather/aggregate")
+                        .param("city", "Florianópolis")
+                        .param("from", "2025-11-07T10:00:00")
+                        .param("to", "2025-11-07T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("HOUR"))
+                .andExpect(jsonPath("$.buckets[0].samples").value(2))
+                .andExpect(jsonPath("$.buckets[0].temperature.avg").value(25.0))
+                .andExpect(jsonPath("$.buckets[0].windSpeed.avg").doesNotExist());
+    }
+
+    @Test
+    void getLatestWeatherByCity_shouldReturn304_WhenVersionIsUnchanged() throws Exception {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO latest = new WeatherDTO("Florianópolis", "BR", 25.0, 80.0, 5.0, "clear sky", observedAt);
+        when(weatherService.getLatestWeatherByCityOrThrow("Florianópolis")).thenReturn(latest);
+
+        MvcResult first = mockMvc.perform(get("/v1/weather/latest").param("city", "Florianópolis"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        when(weatherService.getLatestObservation("Florianópolis")).thenReturn(Optional.of(observedAt));
+
+        mockMvc.perform(get("/v1/weather/latest")
+                        .param("city", "Florianópolis")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verify(weatherService, times(1)).getLatestWeatherByCityOrThrow("Florianópolis");
+    }
+
+    @Test
+    void getWeatherByCity_shouldReturnFullHistory_WhenVersionChanged() throws Exception {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO latest = new WeatherDTO("Florianópolis", "BR", 25.0, 80.0, 5.0, "clear sky", observedAt);
+        when(weatherService.getLatestObservation("Florianópolis")).thenReturn(Optional.of(observedAt));
+        when(weatherService.getWeatherByCity("Florianópolis")).thenReturn(List.of(latest));
+
+        mockMvc.perform(get("/v1/weather/by-city")
+                        .param("city", "Florianópolis")
+                        .header("If-None-Match", "\"by-city-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", WeatherValidators.of("by-city", observedAt, MediaType.APPLICATION_JSON).etag()))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getCurrentWeather_shouldReturn304_WhenModifiedSinceIsNotOlder() throws Exception {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO current = new WeatherDTO("Florianópolis", "BR", 25.0, 80.0, 5.0, "clear sky", observedAt);
+        when(weatherService.getWeather("Florianópolis")).thenReturn(current);
+        long observedAtMillis = observedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        mockMvc.perform(get("/v1/weather/current")
+                        .param("city", "Florianópolis")
+                        .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME
+                                .format(Instant.ofEpochMilli(observedAtMillis).atZone(ZoneOffset.UTC))))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getCurrentWeather_shouldNotSendValidators_ForStaleResponse() throws Exception {
+        WeatherDTO stale = new WeatherDTO("Florianópolis", "BR", 25.0, 80.0, 5.0, "clear sky",
+                LocalDateTime.now().minusHours(1)).asStale(Duration.ofHours(1));
+        when(weatherService.getWeather("Florianópolis")).thenReturn(stale);
+
+        mockMvc.perform(get("/v1/weather/current").param("city", "Florianópolis"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.stale").value(true));
+    }
+
+    @Test
+    void getWeatherByCity_shouldNegotiateSmileAndProtobuf() throws Exception {
+        when(weatherService.getWeatherByCity("Florianópolis")).thenReturn(List.of(dto1, dto2));
+        MockMvc negotiatingMockMvc = negotiatingMockMvc();
+
+        negotiatingMockMvc.perform(get("/v1/weather/by-city").param("city", "Florianópolis"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        negotiatingMockMvc.perform(get("/v1/weather/by-city").param("city", "Florianópolis")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+
+        MvcResult protobuf = negotiatingMockMvc.perform(get("/v1/weather/by-city").param("city", "Florianópolis")
+                        .accept(WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn();
+        assertEquals(new WeatherProtobufHttpMessageConverter().writeList(List.of(dto1, dto2)).length,
+                protobuf.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void getLatestWeatherByCity_shouldTagEachNegotiatedFormatSeparately() throws Exception {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO latest = new WeatherDTO("Florianópolis", "BR", 25.0, 80.0, 5.0, "clear sky", observedAt);
+        when(weatherService.getLatestWeatherByCityOrThrow("Florianópolis")).thenReturn(latest);
+        when(weatherService.getLatestObservation("Florianópolis")).thenReturn(Optional.of(observedAt));
+        MockMvc negotiatingMockMvc = negotiatingMockMvc();
+
+        String jsonEtag = negotiatingMockMvc.perform(get("/v1/weather/latest").param("city", "Florianópolis"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // o ETag do JSON não valida a versão em Protobuf
+        String protobufEtag = negotiatingMockMvc.perform(get("/v1/weather/latest").param("city", "Florianópolis")
+                        .accept(WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .header("If-None-Match", jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(jsonEtag, protobufEtag);
+
+        negotiatingMockMvc.perform(get("/v1/weather/latest").param("city", "Florianópolis")
+                        .accept(WeatherProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .header("If-None-Match", protobufEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+    }
+
+    private MockMvc negotiatingMockMvc() {
+        return MockMvcBuilders.standaloneSetup(weatherController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper),
+                        new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory()).findAndRegisterModules()),
+                        new WeatherProtobufHttpMessageConverter())
+                .build();
+    }
+
 }
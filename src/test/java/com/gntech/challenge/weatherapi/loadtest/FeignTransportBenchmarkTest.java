@@ -0,0 +1,126 @@
+package com.gntech.challenge.weatherapi.loadtest;
+
+import com.gntech.challenge.weatherapi.support.OpenWeatherStub;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.Request;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara o transporte padrão do Feign (HttpURLConnection) com o Apache HttpClient 5 com pool,
+ * chamando em paralelo um stub local do OpenWeather. Execute com:
+ * <pre>./mvnw test -Dtest=FeignTransportBenchmarkTest -Dloadtest=true</pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class FeignTransportBenchmarkTest {
+
+    private static final int CONCURRENCY = 32;
+    private static final int WARM_UP_REQUESTS = 1_000;
+    private static final int REQUESTS = 10_000;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(2);
+
+    interface StubClient {
+        @RequestLine("GET ?q={city}&appid=benchmark&units=metric")
+        String getWeather(@Param("city") String city);
+    }
+
+    @Test
+    void pooledTransport_ShouldServeAllRequests_AndReportLatency() throws Exception {
+        try (OpenWeatherStub stub = new OpenWeatherStub(UPSTREAM_LATENCY)) {
+            Result urlConnection = run("HttpURLConnection", new Client.Default(null, null), stub);
+
+            PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(200)
+                    .setMaxConnPerRoute(50)
+                    .build();
+            Result pooled;
+            try (CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(pool).build()) {
+                pooled = run("HttpClient 5 (pool)", new ApacheHttp5Client(httpClient), stub);
+                log.info("[FeignTransportBenchmarkTest] pool após o teste: {}", pool.getTotalStats());
+            }
+
+            log.info("[FeignTransportBenchmarkTest] {}", urlConnection);
+            log.info("[FeignTransportBenchmarkTest] {}", pooled);
+
+            assertEquals(REQUESTS, urlConnection.successes());
+            assertEquals(REQUESTS, pooled.successes());
+        }
+    }
+
+    private Result run(String name, Client client, OpenWeatherStub stub) throws Exception {
+        StubClient feignClient = Feign.builder()
+                .client(client)
+                .options(new Request.Options(2, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true))
+                .target(StubClient.class, stub.url());
+
+        fire(feignClient, WARM_UP_REQUESTS);
+        long start = System.nanoTime();
+        long[] latencies = fire(feignClient, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Arrays.sort(latencies);
+        int successes = (int) Arrays.stream(latencies).filter(latency -> latency >= 0).count();
+        return new Result(name, successes, REQUESTS / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private long[] fire(StubClient client, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        try (ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY, Thread.ofVirtual().factory())) {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                futures.add(workers.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        String body = client.getWeather("Florianopolis");
+                        latencies[index] = body.contains("\"name\":\"Florianopolis\"") ? System.nanoTime() - start : -1;
+                    } catch (Exception e) {
+                        latencies[index] = -1;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        long[] valid = Arrays.stream(sortedNanos).filter(latency -> latency >= 0).toArray();
+        if (valid.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * valid.length) - 1;
+        return valid[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(String transport, int successes, double throughput, double p50Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return "%s: %d/%d ok, %.0f req/s, p50 %.2f ms, p99 %.2f ms"
+                    .formatted(transport, successes, REQUESTS, throughput, p50Millis, p99Millis);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.gntech.challenge.weatherapi.loadtest;
+
+import com.gntech.challenge.weatherapi.WeatherApiApplication;
+import com.gntech.challenge.weatherapi.support.OpenWeatherStub;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara vazão e número de threads de plataforma entre o modo tradicional e o modo com virtual threads,
+ * com o OpenWeather simulado por um stub local com latência artificial. O pool do Tomcat é reduzido para
+ * que a latência do upstream, e não a CPU da máquina, seja o gargalo do modo com threads de plataforma.
+ * Usa o banco configurado por SPRING_DATASOURCE_*. Execute com:
+ * <pre>./mvnw test -Dtest=VirtualThreadLoadTest -Dloadtest=true</pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = 300;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofSeconds(1);
+    private static final int PLATFORM_MAX_THREADS = 20;
+
+    @Test
+    void virtualThreads_ShouldSustainHigherThroughput_WithFewerPlatformThreads() throws Exception {
+        try (OpenWeatherStub stub = new OpenWeatherStub(UPSTREAM_LATENCY)) {
+            Result platform = run(stub, false);
+            Result virtual = run(stub, true);
+
+            log.info("[VirtualThreadLoadTest] plataforma: {}", platform);
+            log.info("[VirtualThreadLoadTest] virtual:    {}", virtual);
+
+            assertEquals(REQUESTS, platform.successes());
+            assertEquals(REQUESTS, virtual.successes());
+            assertTrue(virtual.throughput() > platform.throughput(),
+                    "virtual threads não aumentaram a vazão: " + virtual + " vs " + platform);
+            assertTrue(virtual.peakPlatformThreads() < platform.peakPlatformThreads(),
+                    "virtual threads não reduziram threads de plataforma: " + virtual + " vs " + platform);
+        }
+    }
+
+    private Result run(OpenWeatherStub stub, boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WeatherApiApplication.class)
+                .run("--server.port=0",
+                        "--openweather.api.url=" + stub.url(),
+                        "--openweather.api.key=load-test",
+                        "--openweather.quota.enabled=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_MAX_THREADS,
+                        "--weather.persistence.write-behind.enabled=true",
+                        "--spring.jpa.show-sql=false");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+            warmUp(port);
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            int successes = fire(port, virtualThreads ? "V" : "P");
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            return new Result(virtualThreads ? "virtual" : "plataforma", successes, REQUESTS / seconds,
+                    threads.getPeakThreadCount());
+        } finally {
+            context.close();
+        }
+    }
+
+    private void warmUp(int port) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        client.send(request(port, "Aquecimento"), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private int fire(int port, String prefix) {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(clients).build();
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(client.sendAsync(request(port, prefix + cityName(i)), HttpResponse.BodyHandlers.discarding()));
+            }
+            return (int) responses.stream()
+                    .map(CompletableFuture::join)
+                    .filter(response -> response.statusCode() == 200)
+                    .count();
+        }
+    }
+
+    private HttpRequest request(int port, String city) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/v1/weather/current?refresh=true&city=" + city))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    // nomes distintos por requisição (apenas letras) para não acionar cache nem coalescência
+    private static String cityName(int index) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return name.toString();
+    }
+
+    private record Result(String mode, int successes, double throughput, int peakPlatformThreads) {
+        @Override
+        public String toString() {
+            return "%s: %d/%d ok, %.1f req/s, pico de %d threads de plataforma"
+                    .formatted(mode, successes, REQUESTS, throughput, peakPlatformThreads);
+        }
+    }
+}
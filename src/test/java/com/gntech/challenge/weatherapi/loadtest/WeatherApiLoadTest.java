@@ -0,0 +1,282 @@
+package com.gntech.challenge.weatherapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gntech.challenge.weatherapi.WeatherApiApplication;
+import com.gntech.challenge.weatherapi.support.LoadTestDatabase;
+import com.gntech.challenge.weatherapi.support.OpenWeatherStub;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga de ponta a ponta: sobe a aplicação contra um PostgreSQL embarcado (ou o indicado em
+ * LOADTEST_DATASOURCE_URL) e um stub local do OpenWeather, e dispara uma mistura de chamadas a
+ * {@code /current}, {@code /latest}, {@code /by-city} e {@code /all} em laço fechado.
+ * Ao final registra vazão e percentis de latência por endpoint e grava o relatório em JSON.
+ * <p>
+ * Parâmetros (propriedades de sistema, todas opcionais):
+ * {@code loadtest.duration} (PT30S), {@code loadtest.concurrency} (32), {@code loadtest.upstream-latency} (PT0.05S),
+ * {@code loadtest.upstream-error-rate} (0.02), {@code loadtest.cities} (50), {@code loadtest.unknown-city-rate} (0.01),
+ * {@code loadtest.mix} (current:60,latest:15,by-city:15,all:10) e {@code loadtest.report} (target/loadtest-report.json).
+ * <pre>./mvnw test -Dtest=WeatherApiLoadTest -Dloadtest=true -Dloadtest.duration=PT1M</pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class WeatherApiLoadTest {
+
+    enum Endpoint {
+        CURRENT("current", "/v1/weather/current?city="),
+        LATEST("latest", "/v1/weather/latest?city="),
+        BY_CITY("by-city", "/v1/weather/by-city?city="),
+        ALL("all", "/v1/weather/all?size=20&page=");
+
+        private final String key;
+        private final String path;
+
+        Endpoint(String key, String path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        static Endpoint of(String key) {
+            return Arrays.stream(values())
+                    .filter(endpoint -> endpoint.key.equals(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Endpoint desconhecido em loadtest.mix: " + key));
+        }
+    }
+
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final Duration upstreamLatency = Duration.parse(System.getProperty("loadtest.upstream-latency", "PT0.05S"));
+    private final double upstreamErrorRate = Double.parseDouble(System.getProperty("loadtest.upstream-error-rate", "0.02"));
+    private final int cityCount = Integer.getInteger("loadtest.cities", 50);
+    private final double unknownCityRate = Double.parseDouble(System.getProperty("loadtest.unknown-city-rate", "0.01"));
+    private final Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadtest.mix", "current:60,latest:15,by-city:15,all:10"));
+    private final File reportFile = new File(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+    @Test
+    void mixedWorkload_ShouldReportThroughputAndLatencyPercentiles() throws Exception {
+        List<String> cities = IntStream.range(0, cityCount).mapToObj(WeatherApiLoadTest::cityName).toList();
+
+        try (LoadTestDatabase database = LoadTestDatabase.start();
+             OpenWeatherStub stub = new OpenWeatherStub(upstreamLatency, upstreamErrorRate, Set.copyOf(cities))) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(WeatherApiApplication.class)
+                    .run("--server.port=0",
+                            "--spring.datasource.url=" + database.url(),
+                            "--spring.datasource.username=" + database.username(),
+                            "--spring.datasource.password=" + database.password(),
+                            "--openweather.api.url=" + stub.url(),
+                            "--openweather.api.key=load-test",
+                            "--openweather.quota.enabled=false",
+                            "--spring.jpa.show-sql=false");
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+                seed(client, port, cities);
+                Map<Endpoint, Stats> stats = run(client, port, cities);
+                report(stats);
+
+                long total = stats.values().stream().mapToLong(Stats::count).sum();
+                assertTrue(total > 0, "nenhuma requisição concluída");
+                for (Endpoint readOnly : List.of(Endpoint.LATEST, Endpoint.BY_CITY, Endpoint.ALL)) {
+                    Stats endpointStats = stats.get(readOnly);
+                    if (endpointStats != null) {
+                        assertEquals(0, endpointStats.serverErrors(), () -> readOnly.key + " respondeu 5xx: " + endpointStats.statuses());
+                    }
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /** Garante ao menos um registro por cidade para que /latest e /by-city encontrem dados. */
+    private void seed(HttpClient client, int port, List<String> cities) throws Exception {
+        for (String city : cities) {
+            for (int attempt = 0; attempt < 5; attempt++) {
+                if (client.send(request(port, Endpoint.CURRENT, city), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private Map<Endpoint, Stats> run(HttpClient client, int port, List<String> cities) throws Exception {
+        Map<Endpoint, Stats> stats = new ConcurrentHashMap<>();
+        List<Endpoint> weighted = mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toList();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        log.info("[WeatherApiLoadTest] {} clientes por {} (mix={}, {} cidades, latência do upstream {}, {}% de erros)",
+                concurrency, duration, mix, cityCount, upstreamLatency, upstreamErrorRate * 100);
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+                        String argument = endpoint == Endpoint.ALL
+                                ? String.valueOf(random.nextInt(5))
+                                : pickCity(cities, random);
+                        long requestStart = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request(port, endpoint, argument), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        stats.computeIfAbsent(endpoint, key -> new Stats()).record(status, System.nanoTime() - requestStart);
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        stats.values().forEach(endpointStats -> endpointStats.elapsedSeconds = seconds);
+        return new EnumMap<>(stats);
+    }
+
+    /** Distribuição enviesada: poucas cidades concentram a maior parte das consultas, como em produção. */
+    private String pickCity(List<String> cities, ThreadLocalRandom random) {
+        if (random.nextDouble() < unknownCityRate) {
+            return "desconhecida" + cityName(random.nextInt(1_000));
+        }
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return cities.get((int) (skewed * cities.size()));
+    }
+
+    private void report(Map<Endpoint, Stats> stats) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("duration", duration.toString());
+        report.put("concurrency", concurrency);
+        report.put("upstreamLatency", upstreamLatency.toString());
+        report.put("upstreamErrorRate", upstreamErrorRate);
+        report.put("cities", cityCount);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> {
+            endpoints.put(endpoint.key, endpointStats.summary());
+            log.info("[WeatherApiLoadTest] {}", endpointStats.describe(endpoint.key));
+        });
+        report.put("endpoints", endpoints);
+
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        log.info("[WeatherApiLoadTest] Relatório gravado em {}", reportFile.getAbsolutePath());
+    }
+
+    private HttpRequest request(int port, Endpoint endpoint, String argument) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + endpoint.path + argument))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : value.split(",")) {
+            String[] keyAndWeight = part.trim().split(":");
+            weights.put(Endpoint.of(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    // nomes apenas com letras, já no formato normalizado pelo serviço
+    private static String cityName(int index) {
+        StringBuilder name = new StringBuilder("Cidade");
+        do {
+            name.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return name.toString();
+    }
+
+    private static class Stats {
+
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private volatile double elapsedSeconds;
+
+        void record(int status, long latencyNanos) {
+            latencies.add(latencyNanos);
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        long count() {
+            return latencies.size();
+        }
+
+        long serverErrors() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() >= 500 || entry.getKey() < 0)
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+        }
+
+        Map<Integer, Long> statuses() {
+            return statuses.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+        }
+
+        Map<String, Object> summary() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", sorted.length);
+            summary.put("throughput", sorted.length / elapsedSeconds);
+            summary.put("statuses", statuses());
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p90Millis", percentile(sorted, 0.90));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("p999Millis", percentile(sorted, 0.999));
+            summary.put("maxMillis", sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0);
+            return summary;
+        }
+
+        String describe(String endpoint) {
+            Map<String, Object> summary = summary();
+            return "%-8s %6d req, %7.1f req/s, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms, status %s"
+                    .formatted(endpoint, summary.get("requests"), summary.get("throughput"), summary.get("p50Millis"),
+                            summary.get("p90Millis"), summary.get("p99Millis"), summary.get("p999Millis"),
+                            summary.get("maxMillis"), summary.get("statuses"));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
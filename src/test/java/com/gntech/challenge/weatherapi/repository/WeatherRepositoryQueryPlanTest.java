@@ -0,0 +1,133 @@
+package com.gntech.challenge.weatherapi.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica, via EXPLAIN em um PostgreSQL local, que as consultas geradas pelo repositório usam os índices
+ * criados pelas migrações (nas partições, os nomes são derivados: weather_p202501_city_id_timestamp_key etc.).
+ * O planner escolhe livremente, com estatísticas de ANALYZE sobre uma massa de dados no mês corrente.
+ * Executado apenas quando WEATHER_IT_DATASOURCE_URL está definido, por exemplo:
+ * <pre>WEATHER_IT_DATASOURCE_URL=jdbc:postgresql://localhost:5432/weather_it ./mvnw test</pre>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.gntech.challenge.weatherapi.repository.WeatherRepositoryQueryPlanTest$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "WEATHER_IT_DATASOURCE_URL", matches = ".+")
+class WeatherRepositoryQueryPlanTest {
+
+    @Autowired private WeatherRepository weatherRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String partition;
+    private LocalDateTime seedStart;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("WEATHER_IT_DATASOURCE_URL"));
+        registry.add("spring.datasource.username", () -> env("WEATHER_IT_DATASOURCE_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> env("WEATHER_IT_DATASOURCE_PASSWORD", "postgres"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                insert into city (name_key, name, country)
+                select 'city' || g, 'City' || g, 'BR' from generate_series(0, 199) g
+                on conflict (name_key) do nothing
+                """);
+        // a massa fica toda na partição do mês corrente, onde as leituras se concentram em produção
+        partition = jdbcTemplate.queryForObject("select weather_create_partition(current_date)", String.class);
+        seedStart = jdbcTemplate.queryForObject("select date_trunc('month', current_date)::timestamp", LocalDateTime.class);
+        jdbcTemplate.update("""
+                insert into weather (id, city_id, temperature, humidity, wind_speed, timestamp)
+                select nextval('weather_seq'), c.id, 20.0, 50.0, 3.0, ? + g * interval '1 minute'
+                from generate_series(1, 20000) g
+                join city c on c.name_key = 'city' || (g % 200)
+                """, seedStart);
+        jdbcTemplate.execute("analyze weather");
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByCityId_ShouldUseCityIndex() {
+        int cityId = cityId("city7");
+        weatherRepository.findByCityId(cityId);
+
+        assertPlanUses("city_id_timestamp", cityId);
+    }
+
+    @Test
+    void findLatestByCityId_ShouldUseCityIndex() {
+        int cityId = cityId("city7");
+        weatherRepository.findLatestByCityId(cityId);
+
+        assertPlanUses("city_id_timestamp", cityId);
+    }
+
+    @Test
+    void findFirstPage_ShouldUseTimestampIndex() {
+        weatherRepository.findFirstPage(11);
+
+        assertPlanUses("timestamp_id", 11);
+    }
+
+    @Test
+    void findPageBefore_ShouldUseTimestampIndex() {
+        LocalDateTime timestamp = seedStart.plusDays(5);
+        weatherRepository.findPageBefore(timestamp, 1000L, 11);
+
+        assertPlanUses("timestamp_id", timestamp, 1000L, timestamp, 11);
+    }
+
+    private int cityId(String nameKey) {
+        return jdbcTemplate.queryForObject("select id from city where name_key = ?", Integer.class, nameKey);
+    }
+
+    private void assertPlanUses(String index, Object... parameters) {
+        assertFalse(RecordingStatementInspector.STATEMENTS.isEmpty(), "nenhuma consulta registrada");
+        String sql = RecordingStatementInspector.STATEMENTS.get(RecordingStatementInspector.STATEMENTS.size() - 1);
+
+        List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class, parameters);
+        String planText = String.join("\n", plan);
+
+        // partições vazias podem ser lidas por Seq Scan sem custo; só a partição com dados importa
+        Pattern indexScan = Pattern.compile("(Index Scan|Index Only Scan|Bitmap Index Scan)( Backward)? (using|on) "
+                + partition + "_\\w*" + index);
+        assertTrue(indexScan.matcher(planText).find(),
+                () -> partition + " não usa " + index + ":\n" + sql + "\n" + planText);
+        assertFalse(planText.contains("Seq Scan on " + partition + " "),
+                () -> partition + " lida por Seq Scan:\n" + sql + "\n" + planText);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.gntech.challenge.weatherapi.repository;
+
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import com.gntech.challenge.weatherapi.entity.WeatherRollupEntity;
+import com.gntech.challenge.weatherapi.service.WeatherDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica, em um PostgreSQL local, que o trigger das migrações V3 e V6 mantém {@code weather_rollup} a cada
+ * leitura gravada e que observações repetidas (V5) não são gravadas nem contadas. Executado apenas quando WEATHER_IT_DATASOURCE_URL está definido.
+ */
+@DataJpaTest
+@Import(WeatherDictionary.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "WEATHER_IT_DATASOURCE_URL", matches = ".+")
+class WeatherRollupRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2031, 3, 5, 10, 0);
+
+    @Autowired private WeatherRepository weatherRepository;
+    @Autowired private WeatherRollupRepository rollupRepository;
+    @Autowired private WeatherDictionary dictionary;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("WEATHER_IT_DATASOURCE_URL"));
+        registry.add("spring.datasource.username", () -> env("WEATHER_IT_DATASOURCE_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> env("WEATHER_IT_DATASOURCE_PASSWORD", "postgres"));
+    }
+
+    @Test
+    void insertingReadings_ShouldUpdateHourDayAndWeekRollups() {
+        int city = dictionary.resolveCity("Rolluptown", "BR").id();
+        assertEquals(city, dictionary.resolveCity("ROLLUPTOWN", "BR").id());
+        Short clear = dictionary.descriptionCode("céu limpo");
+        Short cloudy = dictionary.descriptionCode("nublado");
+        weatherRepository.saveAllAndFlush(List.of(
+                new WeatherEntity(city, 20.0, 60.0, 2.0, clear, BASE.plusMinutes(5)),
+                new WeatherEntity(city, 24.0, null, 4.0, cloudy, BASE.plusMinutes(50)),
+                new WeatherEntity(city, 30.0, 80.0, 6.0, cloudy, BASE.plusHours(3))));
+
+        List<WeatherRollupEntity> hours = rollupRepository.findBuckets(WeatherGranularity.HOUR, city,
+                BASE, BASE.plusDays(1));
+        assertEquals(2, hours.size());
+        WeatherRollupEntity first = hours.get(0);
+        assertEquals(BASE, first.getBucketStart());
+        assertEquals(2, first.getSamples());
+        assertEquals(44.0, first.getTemperatureSum());
+        assertEquals(20.0, first.getTemperatureMin());
+        assertEquals(24.0, first.getTemperatureMax());
+        assertEquals(1, first.getHumidityCount());
+
+        List<WeatherRollupEntity> days = rollupRepository.findBuckets(WeatherGranularity.DAY, city,
+                BASE.toLocalDate().atStartOfDay(), BASE.plusDays(1));
+        assertEquals(1, days.size());
+        assertEquals(3, days.get(0).getSamples());
+        assertEquals(30.0, days.get(0).getTemperatureMax());
+
+        List<WeatherRollupEntity> weeks = rollupRepository.findBuckets(WeatherGranularity.WEEK, city,
+                WeatherGranularity.WEEK.bucketStart(BASE), BASE.plusDays(7));
+        assertEquals(1, weeks.size());
+        assertEquals(WeatherGranularity.WEEK.bucketStart(BASE), weeks.get(0).getBucketStart());
+        assertEquals(12.0, weeks.get(0).getWindSpeedSum());
+    }
+
+    @Test
+    void duplicateObservation_ShouldBeIgnoredAndNotCountedInRollups() {
+        LocalDateTime observedAt = BASE.plusDays(2);
+        int city = dictionary.resolveCity("Duplitown", "BR").id();
+        Short clear = dictionary.descriptionCode("céu limpo");
+        weatherRepository.saveAllAndFlush(List.of(
+                new WeatherEntity(city, 20.0, 60.0, 2.0, clear, observedAt),
+                new WeatherEntity(city, 20.0, 60.0, 2.0, clear, observedAt)));
+
+        assertEquals(1, weatherRepository.findByCityId(city).size());
+        List<WeatherRollupEntity> hours = rollupRepository.findBuckets(WeatherGranularity.HOUR, city,
+                observedAt, observedAt.plusHours(1));
+        assertEquals(1, hours.get(0).getSamples());
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,55 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotCityTrackerTest {
+
+    @Test
+    void top_ShouldReturnMostAccessedCitiesFirst() {
+        HotCityTracker tracker = new HotCityTracker(100, new SimpleMeterRegistry());
+        record(tracker, "Florianopolis", 5);
+        record(tracker, "Curitiba", 3);
+        record(tracker, "Joinville", 1);
+
+        assertEquals(List.of("Florianopolis", "Curitiba"), tracker.top(2));
+    }
+
+    @Test
+    void decay_ShouldDropCitiesWithoutRecentAccess() {
+        HotCityTracker tracker = new HotCityTracker(100, new SimpleMeterRegistry());
+        record(tracker, "Florianopolis", 4);
+        record(tracker, "Joinville", 1);
+
+        tracker.decay();
+
+        assertEquals(List.of("Florianopolis"), tracker.top(10));
+
+        tracker.decay();
+        tracker.decay();
+
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void record_ShouldIgnoreNewCities_WhenTrackerIsFull() {
+        HotCityTracker tracker = new HotCityTracker(2, new SimpleMeterRegistry());
+        record(tracker, "Florianopolis", 1);
+        record(tracker, "Curitiba", 1);
+        record(tracker, "Joinville", 1);
+        record(tracker, "Curitiba", 1);
+
+        assertEquals(2, tracker.size());
+        assertEquals(List.of("Curitiba", "Florianopolis"), tracker.top(10));
+    }
+
+    private void record(HotCityTracker tracker, String city, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(city);
+        }
+    }
+}
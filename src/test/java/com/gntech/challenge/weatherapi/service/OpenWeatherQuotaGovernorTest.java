@@ -0,0 +1,81 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.service.OpenWeatherQuotaGovernor.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenWeatherQuotaGovernorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tryAcquire_ShouldKeepReserveForUserRequests() {
+        OpenWeatherQuotaGovernor governor = governor(10, 0.5, Duration.ZERO);
+
+        int background = 0;
+        while (governor.tryAcquire(Priority.BACKGROUND)) {
+            background++;
+        }
+        int user = 0;
+        while (governor.tryAcquire(Priority.USER)) {
+            user++;
+        }
+
+        assertEquals(5, background);
+        assertEquals(5, user);
+        assertEquals(1.0, meterRegistry.get("openweather.quota.shed").tag("priority", "background").counter().count());
+        assertEquals(1.0, meterRegistry.get("openweather.quota.shed").tag("priority", "user").counter().count());
+        assertEquals(5.0, meterRegistry.get("openweather.quota.tokens.used").tag("priority", "user").counter().count());
+    }
+
+    @Test
+    void tryAcquire_ShouldWaitForNextToken_WithinMaxWait() {
+        // 1200 chamadas por minuto = um token a cada 50ms
+        OpenWeatherQuotaGovernor governor = governor(1200, 0.2, Duration.ofMillis(100));
+        while (governor.availableTokens() >= 1) {
+            governor.tryAcquire(Priority.USER);
+        }
+
+        long start = System.nanoTime();
+        assertTrue(governor.tryAcquire(Priority.USER));
+        assertTrue(governor.tryAcquire(Priority.USER));
+        assertFalse(governor.tryAcquire(Priority.USER));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        OpenWeatherQuotaGovernor governor = governor(60, 0, Duration.ZERO);
+        while (governor.tryAcquire(Priority.BACKGROUND)) {
+            // esvazia o balde
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertTrue(governor.tryAcquire(Priority.BACKGROUND));
+        assertTrue(governor.tryAcquire(Priority.BACKGROUND));
+        assertTrue(governor.tryAcquire(Priority.BACKGROUND));
+        assertFalse(governor.tryAcquire(Priority.BACKGROUND));
+    }
+
+    @Test
+    void tryAcquire_ShouldAlwaysAllow_WhenDisabled() {
+        OpenWeatherQuotaGovernor governor = new OpenWeatherQuotaGovernor(false, 1, 0, Duration.ZERO, meterRegistry, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(governor.tryAcquire(Priority.BACKGROUND));
+        }
+    }
+
+    private OpenWeatherQuotaGovernor governor(int callsPerMinute, double backgroundReserve, Duration maxWait) {
+        return new OpenWeatherQuotaGovernor(true, callsPerMinute, backgroundReserve, maxWait, meterRegistry, clock::get);
+    }
+}
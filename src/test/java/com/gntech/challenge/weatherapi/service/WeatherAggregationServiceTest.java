@@ -0,0 +1,100 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherAggregateDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherBucketDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherGranularity;
+import com.gntech.challenge.weatherapi.entity.WeatherRollupEntity;
+import com.gntech.challenge.weatherapi.exception.WeatherException;
+import com.gntech.challenge.weatherapi.repository.WeatherRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherAggregationServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 7, 10, 30);
+
+    @Mock private WeatherRollupRepository rollupRepository;
+    @Mock private WeatherDictionary dictionary;
+
+    private WeatherAggregationService aggregationService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        aggregationService = new WeatherAggregationService(rollupRepository, dictionary, 100, clock);
+    }
+
+    @Test
+    void getAggregate_ShouldComputeAveragesFromRollupSums() {
+        LocalDateTime bucketStart = LocalDateTime.of(2025, 11, 7, 9, 0);
+        WeatherRollupEntity rollup = new WeatherRollupEntity(WeatherGranularity.HOUR, 1, bucketStart, 4,
+                4, 100.0, 24.0, 26.0,
+                2, 140.0, 69.0, 71.0,
+                0, 0.0, null, null);
+        when(dictionary.findCity("Florianopolis")).thenReturn(Optional.of(new WeatherDictionary.City(1, "Florianópolis", "BR")));
+        when(rollupRepository.findBuckets(WeatherGranularity.HOUR, 1,
+                LocalDateTime.of(2025, 11, 5, 10, 0), NOW)).thenReturn(List.of(rollup));
+
+        WeatherAggregateDTO aggregate = aggregationService.getAggregate(" florianopolis ", "hour", null, null);
+
+        assertEquals("Florianopolis", aggregate.getCity());
+        assertEquals(WeatherGranularity.HOUR, aggregate.getGranularity());
+        assertEquals(1, aggregate.getBuckets().size());
+        WeatherBucketDTO bucket = aggregate.getBuckets().get(0);
+        assertEquals(bucketStart, bucket.getBucketStart());
+        assertEquals(4, bucket.getSamples());
+        assertEquals(25.0, bucket.getTemperature().getAvg());
+        assertEquals(24.0, bucket.getTemperature().getMin());
+        assertEquals(70.0, bucket.getHumidity().getAvg());
+        assertNull(bucket.getWindSpeed().getAvg());
+    }
+
+    @Test
+    void getAggregate_ShouldAlignFromToWeekStart() {
+        LocalDateTime thursday = LocalDateTime.of(2025, 11, 6, 15, 45);
+        LocalDateTime monday = LocalDateTime.of(2025, 11, 3, 0, 0);
+        when(dictionary.findCity("Recife")).thenReturn(Optional.of(new WeatherDictionary.City(2, "Recife", "BR")));
+        when(rollupRepository.findBuckets(WeatherGranularity.WEEK, 2, monday, NOW)).thenReturn(List.of());
+
+        WeatherAggregateDTO aggregate = aggregationService.getAggregate("Recife", "WEEK", thursday, null);
+
+        assertEquals(monday, aggregate.getFrom());
+        assertTrue(aggregate.getBuckets().isEmpty());
+    }
+
+    @Test
+    void getAggregate_ShouldRejectUnknownGranularity() {
+        WeatherException ex = assertThrows(WeatherException.class,
+                () -> aggregationService.getAggregate("Recife", "MONTH", null, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void getAggregate_ShouldRejectInvertedOrOversizedRanges() {
+        assertThrows(WeatherException.class,
+                () -> aggregationService.getAggregate("Recife", "DAY", NOW, NOW.minusDays(1)));
+
+        WeatherException ex = assertThrows(WeatherException.class,
+                () -> aggregationService.getAggregate("Recife", "HOUR", NOW.minusDays(30), NOW));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verify(rollupRepository, never()).findBuckets(any(), anyInt(), any(), any());
+    }
+}
@@ -0,0 +1,96 @@
+package com.gntech.challenge.weatherapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherDictionaryTest {
+
+    private static final WeatherDictionary.City FLORIANOPOLIS = new WeatherDictionary.City(1, "Florianópolis", "BR");
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private WeatherDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new WeatherDictionary(jdbcTemplate, transactionManager, Duration.ofSeconds(30));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load_ShouldServeLookupsFromMemory() {
+        when(jdbcTemplate.query(eq("select id, name, country from city"), any(RowMapper.class)))
+                .thenReturn(List.of(FLORIANOPOLIS));
+        when(jdbcTemplate.query(eq("select id, description from weather_description"), any(RowMapper.class)))
+                .thenReturn(List.of(Map.entry((short) 3, "céu limpo")));
+
+        dictionary.load();
+
+        assertEquals(Optional.of(FLORIANOPOLIS), dictionary.findCity(" FLORIANÓPOLIS "));
+        assertSame(FLORIANOPOLIS, dictionary.resolveCity("florianópolis", "BR"));
+        assertSame(FLORIANOPOLIS, dictionary.city(1));
+        assertEquals((short) 3, dictionary.descriptionCode("céu limpo"));
+        assertEquals("céu limpo", dictionary.description((short) 3));
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolveCity_ShouldRegisterUnknownCityOnce() {
+        WeatherDictionary.City recife = new WeatherDictionary.City(7, "Recife", "BR");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("recife")))
+                .thenReturn(List.of(), List.of(recife));
+
+        assertEquals(recife, dictionary.resolveCity(" Recife ", "BR"));
+        assertEquals(recife, dictionary.resolveCity("RECIFE", "BR"));
+        assertEquals(recife, dictionary.city(7));
+
+        verify(jdbcTemplate, times(1)).update(anyString(), eq("recife"), eq("Recife"), eq("BR"));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void findCity_ShouldNotRegisterUnknownCity() {
+        assertEquals(Optional.empty(), dictionary.findCity("Atlantis"));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findCity_ShouldCacheMiss_UntilCityIsRegistered() {
+        WeatherDictionary.City recife = new WeatherDictionary.City(7, "Recife", "BR");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("recife")))
+                .thenReturn(List.of(), List.of(recife));
+
+        assertEquals(Optional.empty(), dictionary.findCity("Recife"));
+        assertEquals(Optional.empty(), dictionary.findCity("recife"));
+        assertEquals(recife, dictionary.resolveCity("Recife", "BR"));
+        assertEquals(Optional.of(recife), dictionary.findCity("Recife"));
+
+        // uma busca da ausência e uma do cadastro
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq("recife"));
+    }
+}
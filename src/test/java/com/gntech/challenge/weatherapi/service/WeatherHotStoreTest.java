@@ -0,0 +1,93 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherHotStoreTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2025, 11, 7, 10, 0);
+    private static final int FLORIANOPOLIS = 1;
+
+    @Mock private WeatherDictionary dictionary;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WeatherHotStore hotStore;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(dictionary.city(FLORIANOPOLIS)).thenReturn(new WeatherDictionary.City(FLORIANOPOLIS, "Florianópolis", "BR"));
+        lenient().when(dictionary.description((short) 1)).thenReturn("céu limpo");
+        hotStore = new WeatherHotStore(null, dictionary, true, 3, 100, meterRegistry);
+    }
+
+    @Test
+    void latest_ShouldReturnNewestReading_AndIgnoreOlderOnes() {
+        hotStore.record(reading(OBSERVED_AT, 25.0));
+        hotStore.record(reading(OBSERVED_AT.plusHours(1), 26.0));
+        hotStore.record(reading(OBSERVED_AT.minusHours(1), 24.0));
+
+        WeatherDTO latest = hotStore.latest(FLORIANOPOLIS).orElseThrow();
+
+        assertEquals("Florianópolis", latest.getCity());
+        assertEquals("céu limpo", latest.getDescription());
+        assertEquals(26.0, latest.getTemperature());
+        assertEquals(OBSERVED_AT.plusHours(1), latest.getDateTime());
+        assertEquals(Optional.empty(), hotStore.latest(2));
+        assertEquals(1, meterRegistry.counter("weather.hot-store.requests", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("weather.hot-store.requests", "result", "miss").count());
+    }
+
+    @Test
+    void range_ShouldServeOnlyPeriodsFullyCoveredByTheBuffer() {
+        for (int hour = 0; hour < 4; hour++) {
+            hotStore.record(reading(OBSERVED_AT.plusHours(hour), 20.0 + hour));
+        }
+
+        List<WeatherDTO> recent = hotStore.range(FLORIANOPOLIS, OBSERVED_AT.plusHours(1), OBSERVED_AT.plusHours(3)).orElseThrow();
+
+        assertEquals(List.of(OBSERVED_AT.plusHours(2), OBSERVED_AT.plusHours(1)),
+                recent.stream().map(WeatherDTO::getDateTime).toList());
+        // a primeira leitura saiu do buffer: o período dela precisa ir ao banco
+        assertEquals(Optional.empty(), hotStore.range(FLORIANOPOLIS, OBSERVED_AT, OBSERVED_AT.plusHours(3)));
+    }
+
+    @Test
+    void record_ShouldKeepMissingValuesAsNull() {
+        hotStore.record(new WeatherEntity(FLORIANOPOLIS, null, 70.0, null, null, OBSERVED_AT));
+
+        WeatherDTO latest = hotStore.latest(FLORIANOPOLIS).orElseThrow();
+
+        assertNull(latest.getTemperature());
+        assertEquals(70.0, latest.getHumidity());
+        assertNull(latest.getWindSpeed());
+        assertNull(latest.getDescription());
+    }
+
+    @Test
+    void latest_ShouldMiss_WhenDisabled() {
+        WeatherHotStore disabled = new WeatherHotStore(null, dictionary, false, 3, 100, meterRegistry);
+
+        disabled.record(reading(OBSERVED_AT, 25.0));
+
+        assertEquals(Optional.empty(), disabled.latest(FLORIANOPOLIS));
+        verifyNoInteractions(dictionary);
+    }
+
+    private static WeatherEntity reading(LocalDateTime timestamp, double temperature) {
+        return new WeatherEntity(FLORIANOPOLIS, temperature, 70.0, 5.0, (short) 1, timestamp);
+    }
+}
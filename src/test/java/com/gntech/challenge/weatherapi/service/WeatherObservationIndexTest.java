@@ -0,0 +1,44 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherObservationIndexTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2025, 11, 7, 10, 0);
+    private static final Integer FLORIANOPOLIS = 1;
+    private static final Integer RECIFE = 2;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeatherObservationIndex index = new WeatherObservationIndex(100, meterRegistry);
+
+    @Test
+    void markIfNew_ShouldAcceptOnlyNewerObservationsPerCity() {
+        assertTrue(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT));
+        assertFalse(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT));
+        assertFalse(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT.minusMinutes(10)));
+        assertTrue(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT.plusMinutes(10)));
+        assertTrue(index.markIfNew(RECIFE, OBSERVED_AT));
+
+        assertEquals(2, meterRegistry.counter("weather.persistence.deduplicated").count());
+    }
+
+    @Test
+    void forget_ShouldAllowTheSameObservationAgain() {
+        assertTrue(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT));
+
+        index.forget(FLORIANOPOLIS, OBSERVED_AT);
+
+        assertTrue(index.markIfNew(FLORIANOPOLIS, OBSERVED_AT));
+    }
+
+    @Test
+    void markIfNew_ShouldAcceptReadingsWithoutObservationTime() {
+        assertTrue(index.markIfNew(FLORIANOPOLIS, null));
+        assertTrue(index.markIfNew(FLORIANOPOLIS, null));
+    }
+}
@@ -0,0 +1,71 @@
+package com.gntech.challenge.weatherapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherPartitionMaintenanceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WeatherPartitionMaintenance maintenance(int retentionMonths) {
+        return new WeatherPartitionMaintenance(jdbcTemplate, true, 2, retentionMonths, Duration.ofHours(6), CLOCK, meterRegistry);
+    }
+
+    @Test
+    void runMaintenance_ShouldCreateOnlyMissingUpcomingPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("weather_default", "weather_p202610"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(LocalDate.class)))
+                .thenReturn("weather_p202611", "weather_p202612");
+
+        maintenance(0).runMaintenance();
+
+        verify(jdbcTemplate).queryForObject("select weather_create_partition(?)", String.class, LocalDate.of(2026, 11, 1));
+        verify(jdbcTemplate).queryForObject("select weather_create_partition(?)", String.class, LocalDate.of(2026, 12, 1));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2026, 10, 1)));
+        verify(jdbcTemplate, never()).execute(anyString());
+        assertEquals(2.0, meterRegistry.counter("weather.partitions.created").count());
+    }
+
+    @Test
+    void runMaintenance_ShouldDropOnlyMonthsOutsideRetention() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("weather_default", "weather_p202603", "weather_p202604", "weather_p202610",
+                        "weather_p202611", "weather_p202612"));
+
+        maintenance(6).runMaintenance();
+
+        verify(jdbcTemplate).execute("drop table if exists weather_p202603");
+        verify(jdbcTemplate, never()).execute("drop table if exists weather_p202604");
+        verify(jdbcTemplate, never()).execute("drop table if exists weather_default");
+        assertEquals(1.0, meterRegistry.counter("weather.partitions.dropped").count());
+    }
+
+    @Test
+    void partitionName_ShouldUseYearAndMonth() {
+        assertEquals("weather_p202601", WeatherPartitionMaintenance.partitionName(YearMonth.of(2026, 1)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherRefreshAheadSchedulerTest {
+
+    @Mock private WeatherService weatherService;
+
+    private WeatherRefreshAheadScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void runCycle_ShouldRefreshHotCitiesCloseToExpiry() {
+        WeatherCache cache = new WeatherCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        HotCityTracker tracker = new HotCityTracker(100, new SimpleMeterRegistry());
+        cache.put("Florianopolis", dto("Florianopolis"));
+        tracker.record("Florianopolis");
+        tracker.record("Curitiba");
+        scheduler = scheduler(cache, tracker, Duration.ofMinutes(10), 60);
+
+        scheduler.runCycle();
+
+        verify(weatherService, timeout(2000)).refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND);
+        verify(weatherService, never()).refreshWeather(eq("Curitiba"), any());
+    }
+
+    @Test
+    void runCycle_ShouldSkipEntriesFarFromExpiry() {
+        WeatherCache cache = new WeatherCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        HotCityTracker tracker = new HotCityTracker(100, new SimpleMeterRegistry());
+        cache.put("Florianopolis", dto("Florianopolis"));
+        tracker.record("Florianopolis");
+        scheduler = scheduler(cache, tracker, Duration.ofSeconds(30), 60);
+
+        scheduler.runCycle();
+
+        verify(weatherService, after(200).never()).refreshWeather(anyString(), any());
+    }
+
+    @Test
+    void runCycle_ShouldStayWithinRefreshBudget() {
+        WeatherCache cache = new WeatherCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        HotCityTracker tracker = new HotCityTracker(100, new SimpleMeterRegistry());
+        for (String city : new String[]{"Florianopolis", "Curitiba", "Joinville"}) {
+            cache.put(city, dto(city));
+            tracker.record(city);
+        }
+        scheduler = scheduler(cache, tracker, Duration.ofMinutes(10), 1);
+
+        scheduler.runCycle();
+
+        verify(weatherService, after(500).times(1)).refreshWeather(anyString(), any());
+    }
+
+    private WeatherRefreshAheadScheduler scheduler(WeatherCache cache, HotCityTracker tracker, Duration window, int budgetPerMinute) {
+        return new WeatherRefreshAheadScheduler(weatherService, cache, tracker, true, 10, Duration.ofMinutes(1),
+                window, budgetPerMinute, 2, new SimpleMeterRegistry());
+    }
+
+    private WeatherDTO dto(String city) {
+        return new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+    }
+}
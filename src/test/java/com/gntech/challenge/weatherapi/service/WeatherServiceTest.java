@@ -1,16 +1,22 @@
 package com.gntech.challenge.weatherapi.service;
 
+import com.gntech.challenge.weatherapi.dto.BulkWeatherDTO;
 import com.gntech.challenge.weatherapi.dto.OpenWeatherResponse;
 import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherPageDTO;
 import com.gntech.challenge.weatherapi.entity.WeatherEntity;
 import com.gntech.challenge.weatherapi.exception.WeatherException;
 import com.gntech.challenge.weatherapi.mapper.WeatherMapper;
 import com.gntech.challenge.weatherapi.repository.WeatherRepository;
 import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,9 +26,21 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,14 +52,44 @@ public class WeatherServiceTest {
     @Mock private WeatherClient weatherClient;
     @Mock private WeatherRepository weatherRepository;
     @Mock private WeatherMapper mapper;
+    @Mock private WeatherDictionary dictionary;
 
-    @InjectMocks
     private WeatherService weatherService;
 
+    private WeatherCache weatherCache;
+    private ExecutorService fanOutExecutor;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private OpenWeatherQuotaGovernor quotaGovernor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        fanOutExecutor.shutdownNow();
+    }
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        weatherService = new WeatherService(weatherClient, weatherRepository, mapper, "dummy-api-key");
+        weatherCache = new WeatherCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        WeatherWriteBehindBuffer writeBehindBuffer = new WeatherWriteBehindBuffer(weatherRepository, false, 10, 5,
+                Duration.ofSeconds(1), Duration.ZERO, new SimpleMeterRegistry());
+        fanOutExecutor = Executors.newFixedThreadPool(4);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        meterRegistry = new SimpleMeterRegistry();
+        quotaGovernor = new OpenWeatherQuotaGovernor(true, 1000, 0.2, Duration.ZERO, new SimpleMeterRegistry());
+        lenient().when(dictionary.findCity(anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            return Optional.of(new WeatherDictionary.City(cityId(name), name, "BR"));
+        });
+        weatherService = newService(writeBehindBuffer, new WeatherHotStore(null, dictionary, false, 4, 100, meterRegistry));
+    }
+
+    private WeatherService newService(WeatherWriteBehindBuffer writeBehindBuffer, WeatherHotStore hotStore) {
+        return new WeatherService(weatherClient, weatherRepository, mapper, weatherCache,
+                new WeatherNegativeCache(true, 100, Duration.ofMinutes(10), meterRegistry),
+                new HotCityTracker(100, new SimpleMeterRegistry()), writeBehindBuffer,
+                new WeatherObservationIndex(100, meterRegistry), dictionary, hotStore, fanOutExecutor, circuitBreakerRegistry,
+                quotaGovernor, meterRegistry, 100, "dummy-api-key");
     }
 
     @Test
@@ -72,9 +120,10 @@ public class WeatherServiceTest {
     @Test
     void getLatestWeatherByCityOrThrow_ShouldThrow_WhenNoData() {
         String city = "CidadeInexistente";
-        when(weatherRepository.findFirstByCityIgnoreCaseOrderByTimestampDesc(city.trim())).thenReturn(Optional.empty());
+        when(dictionary.findCity("Cidadeinexistente")).thenReturn(Optional.empty());
 
         assertThrows(WeatherException.class, () -> weatherService.getLatestWeatherByCityOrThrow(city));
+        verifyNoInteractions(weatherRepository);
     }
 
     @Test
@@ -85,20 +134,34 @@ public class WeatherServiceTest {
 
         when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenReturn(response);
         when(mapper.fromResponse(response)).thenReturn(dto);
-        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(city, "BR", 25.0, 70.0, 5.0, "Sunny", null));
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, null));
 
         WeatherDTO result = weatherService.getWeather(city);
 
         assertNotNull(result);
         assertEquals("Florianopolis", result.getCity());
         verify(weatherRepository, times(1)).save(any(WeatherEntity.class));
+        assertEquals(1, meterRegistry.get("weather.upstream.requests").tags("outcome", "SUCCESS", "status", "200").timer().count());
+        assertEquals(1, meterRegistry.get("weather.persistence").tags("operation", "save", "outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void fetchWeatherFromApi_ShouldTagUpstreamTimer_WithFailureStatus() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost/weather", Map.of(), null, StandardCharsets.UTF_8, null);
+        FeignException serviceUnavailable = FeignException.errorStatus("getWeather",
+                feign.Response.builder().status(503).reason("Service Unavailable").request(request).headers(Map.of()).build());
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenThrow(serviceUnavailable);
+
+        assertThrows(WeatherException.class, () -> weatherService.fetchWeatherFromApi("Florianopolis"));
+
+        assertEquals(1, meterRegistry.get("weather.upstream.requests").tags("outcome", "SERVER_ERROR", "status", "503").timer().count());
     }
 
     @Test
     void persistWeatherData_ShouldThrowWeatherException_OnSaveFailure() {
         WeatherDTO dto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", null);
-        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(dto.getCity(), dto.getCountry(), dto.getTemperature(),
-                dto.getHumidity(), dto.getWindSpeed(), dto.getDescription(), null));
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(dto.getCity()), dto.getTemperature(),
+                dto.getHumidity(), dto.getWindSpeed(), (short) 1, null));
         doThrow(new RuntimeException("DB error")).when(weatherRepository).save(any());
 
         WeatherException ex = assertThrows(WeatherException.class, () -> {
@@ -108,10 +171,54 @@ public class WeatherServiceTest {
         assertTrue(ex.getMessage().contains("Erro ao persistir dados de clima"));
     }
 
+    @Test
+    void refreshWeather_ShouldSkipPersistence_WhenObservationIsUnchanged() {
+        String city = "Florianopolis";
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", observedAt);
+        OpenWeatherResponse response = new OpenWeatherResponse();
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenReturn(response);
+        when(mapper.fromResponse(response)).thenReturn(dto);
+        when(mapper.toEntity(dto)).thenAnswer(invocation -> new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, observedAt));
+
+        weatherService.refreshWeather(city);
+        weatherService.refreshWeather(city);
+
+        verify(weatherRepository, times(1)).save(any(WeatherEntity.class));
+        assertEquals(1, meterRegistry.counter("weather.persistence.deduplicated").count());
+        assertEquals(1, meterRegistry.get("weather.persistence").tags("operation", "skip", "outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void persistWeatherData_ShouldRetryObservation_AfterSaveFailure() {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO dto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", observedAt);
+        when(mapper.toEntity(dto)).thenAnswer(invocation ->
+                new WeatherEntity(cityId("Florianopolis"), 25.0, 70.0, 5.0, (short) 1, observedAt));
+        when(weatherRepository.save(any())).thenThrow(new RuntimeException("DB error")).thenReturn(null);
+
+        assertThrows(WeatherException.class, () -> ReflectionTestUtils.invokeMethod(weatherService, "persistWeatherData", dto));
+        ReflectionTestUtils.invokeMethod(weatherService, "persistWeatherData", dto);
+
+        verify(weatherRepository, times(2)).save(any(WeatherEntity.class));
+    }
+
+    @Test
+    void getLatestObservation_ShouldFallBackToDatabaseOnce_AndRememberIt() {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        when(weatherRepository.findLatestTimestampByCityId(cityId("Florianopolis"))).thenReturn(Optional.of(observedAt));
+
+        assertEquals(Optional.of(observedAt), weatherService.getLatestObservation("Florianopolis"));
+        assertEquals(Optional.of(observedAt), weatherService.getLatestObservation("florianopolis"));
+
+        verify(weatherRepository, times(1)).findLatestTimestampByCityId(anyInt());
+    }
+
     @Test
     void getAllWeather_ShouldReturnPagedWeatherDTOs() {
-        WeatherEntity entity1 = new WeatherEntity("City1", "BR", 20.0, 50.0, 3.0, "Cloudy", null);
-        WeatherEntity entity2 = new WeatherEntity("City2", "BR", 22.0, 55.0, 4.0, "Sunny", null);
+        WeatherEntity entity1 = new WeatherEntity(cityId("City1"), 20.0, 50.0, 3.0, (short) 1, null);
+        WeatherEntity entity2 = new WeatherEntity(cityId("City2"), 22.0, 55.0, 4.0, (short) 1, null);
         List<WeatherEntity> entities = List.of(entity1, entity2);
         Page<WeatherEntity> page = new PageImpl<>(entities);
 
@@ -126,13 +233,58 @@ public class WeatherServiceTest {
         assertEquals("City2", result.get(1).getCity());
     }
 
+    @Test
+    void getWeatherPage_ShouldReturnFirstPageWithNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherEntity entity1 = new WeatherEntity(3L, cityId("City1"), 20.0, 50.0, 3.0, (short) 1, now);
+        WeatherEntity entity2 = new WeatherEntity(2L, cityId("City2"), 22.0, 55.0, 4.0, (short) 1, now.minusMinutes(1));
+        WeatherEntity entity3 = new WeatherEntity(1L, cityId("City3"), 24.0, 60.0, 5.0, (short) 1, now.minusMinutes(2));
+
+        when(weatherRepository.findFirstPage(3)).thenReturn(List.of(entity1, entity2, entity3));
+        when(mapper.toDTO(any(WeatherEntity.class))).thenAnswer(invocation -> {
+            WeatherEntity entity = invocation.getArgument(0);
+            return new WeatherDTO("City" + entity.getCityId(), "BR", null, null, null, null, entity.getTimestamp());
+        });
+
+        WeatherPageDTO page = weatherService.getWeatherPage("", 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.hasNext());
+        WeatherCursor cursor = WeatherCursor.decode(page.getNextCursor());
+        assertEquals(entity2.getTimestamp(), cursor.timestamp());
+        assertEquals(2L, cursor.id());
+    }
+
+    @Test
+    void getWeatherPage_ShouldSeekAfterCursor_AndEndWithoutNextCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 11, 7, 10, 0);
+        String cursor = new WeatherCursor(timestamp, 2L).encode();
+        WeatherEntity entity = new WeatherEntity(1L, cityId("City3"), 24.0, 60.0, 5.0, (short) 1, timestamp.minusMinutes(2));
+
+        when(weatherRepository.findPageBefore(timestamp, 2L, 3)).thenReturn(List.of(entity));
+        when(mapper.toDTO(entity)).thenReturn(new WeatherDTO("City3", "BR", 24.0, 60.0, 5.0, "Sunny", entity.getTimestamp()));
+
+        WeatherPageDTO page = weatherService.getWeatherPage(cursor, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.hasNext());
+        verify(weatherRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getWeatherPage_ShouldThrowBadRequest_OnInvalidCursor() {
+        WeatherException ex = assertThrows(WeatherException.class, () -> weatherService.getWeatherPage("not-a-cursor", 10));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
     @Test
     void getWeatherByCity_ShouldReturnWeatherDTOs() {
         String city = "Florianopolis";
-        WeatherEntity entity = new WeatherEntity(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        WeatherEntity entity = new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, null);
         WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
 
-        when(weatherRepository.findByCityIgnoreCase(city.trim())).thenReturn(List.of(entity));
+        when(weatherRepository.findByCityId(cityId(city))).thenReturn(List.of(entity));
         when(mapper.toDTO(entity)).thenReturn(dto);
 
         List<WeatherDTO> result = weatherService.getWeatherByCity(city);
@@ -141,6 +293,386 @@ public class WeatherServiceTest {
         assertEquals(city, result.get(0).getCity());
     }
 
+    @Test
+    void getWeatherByCity_WithPeriod_ShouldQueryBoundedRange() {
+        LocalDateTime from = LocalDateTime.of(2025, 11, 1, 0, 0);
+        WeatherEntity entity = new WeatherEntity(cityId("Florianopolis"), 25.0, 70.0, 5.0, (short) 1, from);
+        WeatherDTO dto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", from);
+
+        when(weatherRepository.findByCityIdBetween(eq(cityId("Florianopolis")), eq(from), any(LocalDateTime.class)))
+                .thenReturn(List.of(entity));
+        when(mapper.toDTO(entity)).thenReturn(dto);
+
+        assertEquals(List.of(dto), weatherService.getWeatherByCity(" Florianopolis ", from, null));
+        verify(weatherRepository, never()).findByCityId(anyInt());
+
+        WeatherException ex = assertThrows(WeatherException.class,
+                () -> weatherService.getWeatherByCity("Florianopolis", from, from));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void getWeather_ShouldServeFromCache_OnRepeatedLookup() {
+        String city = "Florianopolis";
+        WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        OpenWeatherResponse response = new OpenWeatherResponse();
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenReturn(response);
+        when(mapper.fromResponse(response)).thenReturn(dto);
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, null));
+
+        WeatherDTO first = weatherService.getWeather(" florianopolis ");
+        WeatherDTO second = weatherService.getWeather("FLORIANOPOLIS");
+
+        assertSame(first, second);
+        verify(weatherClient, times(1)).getWeather("Florianopolis", "dummy-api-key", "metric");
+        verify(weatherRepository, times(1)).save(any(WeatherEntity.class));
+        assertEquals(1, weatherCache.stats().hitCount());
+        assertEquals(1, weatherCache.stats().missCount());
+    }
+
+    @Test
+    void refreshWeather_ShouldBypassCache() {
+        String city = "Florianopolis";
+        WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        OpenWeatherResponse response = new OpenWeatherResponse();
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenReturn(response);
+        when(mapper.fromResponse(response)).thenReturn(dto);
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, null));
+
+        weatherService.getWeather(city);
+        weatherService.refreshWeather(city);
+
+        verify(weatherClient, times(2)).getWeather("Florianopolis", "dummy-api-key", "metric");
+        verify(weatherRepository, times(2)).save(any(WeatherEntity.class));
+    }
+
+    @Test
+    void getWeather_ShouldCoalesceConcurrentLookups_IntoSingleUpstreamCall() throws Exception {
+        String city = "Florianopolis";
+        int callers = 32;
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", observedAt);
+        OpenWeatherResponse response = new OpenWeatherResponse();
+        CountDownLatch started = new CountDownLatch(callers);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+        when(mapper.fromResponse(response)).thenReturn(dto);
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, observedAt));
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<WeatherDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return weatherService.getWeather(city);
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<WeatherDTO> future : futures) {
+                assertSame(dto, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(weatherClient, times(1)).getWeather(city, "dummy-api-key", "metric");
+        verify(weatherRepository, times(1)).save(any(WeatherEntity.class));
+    }
+
+    @Test
+    void getWeather_ShouldPropagateFailure_ToAllConcurrentCallers() throws Exception {
+        String city = "Florianopolis";
+        int callers = 16;
+        CountDownLatch started = new CountDownLatch(callers);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw mock(FeignException.class);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<WeatherDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return weatherService.getWeather(city);
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<WeatherDTO> future : futures) {
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(WeatherException.class, ex.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(weatherClient, times(1)).getWeather(city, "dummy-api-key", "metric");
+        verify(weatherRepository, never()).save(any(WeatherEntity.class));
+    }
+
+    @Test
+    void getWeatherBulk_ShouldFetchInParallel_AndPersistInSingleBatch() {
+        List<String> cities = List.of("Recife", "Natal", "Manaus", "Belem");
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            OpenWeatherResponse response = new OpenWeatherResponse();
+            response.name = invocation.getArgument(0);
+            return response;
+        });
+        when(mapper.fromResponse(any(OpenWeatherResponse.class))).thenAnswer(invocation -> {
+            OpenWeatherResponse response = invocation.getArgument(0);
+            return new WeatherDTO(response.name, "BR", 20.0, 50.0, 3.0, "Cloudy", null);
+        });
+        when(mapper.toEntity(any(WeatherDTO.class))).thenAnswer(invocation -> {
+            WeatherDTO dto = invocation.getArgument(0);
+            return new WeatherEntity(cityId(dto.getCity()), 20.0, 50.0, 3.0, (short) 1, null);
+        });
+
+        long start = System.nanoTime();
+        BulkWeatherDTO result = weatherService.getWeatherBulk(cities);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(4, result.getResults().size());
+        assertTrue(result.getErrors().isEmpty());
+        assertTrue(elapsedMillis < 1000, "consultas não foram executadas em paralelo: " + elapsedMillis + "ms");
+        verify(weatherRepository, times(1)).saveAll(argThat(entities -> ((List<?>) entities).size() == 4));
+        verify(weatherRepository, never()).save(any(WeatherEntity.class));
+    }
+
+    @Test
+    void getWeatherBulk_ShouldReturnPerCityErrors_AndServeCachedCities() {
+        WeatherDTO cachedDto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        weatherCache.put("Florianopolis", cachedDto);
+        when(weatherClient.getWeather(eq("Cidadeinexistente"), anyString(), anyString()))
+                .thenThrow(FeignException.FeignClientException.class);
+
+        BulkWeatherDTO result = weatherService.getWeatherBulk(List.of("florianopolis", "cidadeinexistente", " ", "Natal<script>"));
+
+        assertSame(cachedDto, result.getResults().get("Florianopolis"));
+        assertEquals(502, result.getErrors().get("Cidadeinexistente").getStatus());
+        assertEquals(400, result.getErrors().get(" ").getStatus());
+        assertEquals(400, result.getErrors().get("Natal<script>").getStatus());
+        verify(weatherClient, times(1)).getWeather(anyString(), anyString(), anyString());
+        verify(weatherRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void getWeatherBulk_ShouldShareInFlightLookup_WithConcurrentGetWeather() throws Exception {
+        String city = "Florianopolis";
+        WeatherDTO dto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        OpenWeatherResponse response = new OpenWeatherResponse();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+        when(mapper.fromResponse(response)).thenReturn(dto);
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(cityId(city), 25.0, 70.0, 5.0, (short) 1, null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<WeatherDTO> single = executor.submit(() -> weatherService.getWeather(city));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<BulkWeatherDTO> bulk = executor.submit(() -> weatherService.getWeatherBulk(List.of("florianopolis")));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertSame(dto, single.get(5, TimeUnit.SECONDS));
+            assertSame(dto, bulk.get(5, TimeUnit.SECONDS).getResults().get(city));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(weatherClient, times(1)).getWeather(city, "dummy-api-key", "metric");
+        HotCityTracker hotCityTracker = (HotCityTracker) ReflectionTestUtils.getField(weatherService, "hotCityTracker");
+        assertEquals(List.of(city), hotCityTracker.top(10));
+    }
+
+    @Test
+    void getWeatherBulk_ShouldNotCacheStaleFallback_WhenJoiningFailedCurrentLookup() throws Exception {
+        assertSharedFailureFallsBackToStale(false);
+    }
+
+    @Test
+    void getWeather_ShouldFallBackToStoredReading_WhenJoiningFailedBulkLookup() throws Exception {
+        assertSharedFailureFallsBackToStale(true);
+    }
+
+    /** /current e /current/bulk na mesma consulta que falha: cada um serve o dado salvo como stale, sem cacheá-lo. */
+    private void assertSharedFailureFallsBackToStale(boolean bulkFirst) throws Exception {
+        String city = "Florianopolis";
+        LocalDateTime observedAt = LocalDateTime.now().minusMinutes(10);
+        WeatherEntity stored = new WeatherEntity(cityId(city), 22.0, 60.0, 4.0, (short) 1, observedAt);
+        when(weatherRepository.findLatestByCityId(cityId(city))).thenReturn(Optional.of(stored));
+        when(mapper.toDTO(stored)).thenAnswer(invocation -> new WeatherDTO(city, "BR", 22.0, 60.0, 4.0, "Cloudy", observedAt));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(weatherClient.getWeather(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw mock(FeignException.ServiceUnavailable.class);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<WeatherDTO> single;
+        Future<BulkWeatherDTO> bulk;
+        try {
+            if (bulkFirst) {
+                bulk = executor.submit(() -> weatherService.getWeatherBulk(List.of(city)));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                single = executor.submit(() -> weatherService.getWeather(city));
+            } else {
+                single = executor.submit(() -> weatherService.getWeather(city));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                bulk = executor.submit(() -> weatherService.getWeatherBulk(List.of(city)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            assertTrue(single.get(5, TimeUnit.SECONDS).isStale());
+            assertTrue(bulk.get(5, TimeUnit.SECONDS).getResults().get(city).isStale());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(weatherClient, times(1)).getWeather(city, "dummy-api-key", "metric");
+        verify(weatherRepository, never()).save(any(WeatherEntity.class));
+        verify(weatherRepository, never()).saveAll(anyList());
+        assertTrue(weatherCache.peek(city).isEmpty());
+    }
+
+    @Test
+    void getWeather_ShouldServeStoredReadingAsStale_WhenCircuitIsOpen() {
+        String city = "Florianopolis";
+        LocalDateTime observedAt = LocalDateTime.now().minusMinutes(10);
+        WeatherEntity stored = new WeatherEntity(cityId(city), 22.0, 60.0, 4.0, (short) 1, observedAt);
+        when(weatherRepository.findLatestByCityId(cityId(city))).thenReturn(Optional.of(stored));
+        when(mapper.toDTO(stored)).thenReturn(new WeatherDTO(city, "BR", 22.0, 60.0, 4.0, "Cloudy", observedAt));
+        circuitBreakerRegistry.circuitBreaker(WeatherService.OPEN_WEATHER_CIRCUIT_BREAKER).transitionToOpenState();
+
+        WeatherDTO result = weatherService.getWeather(city);
+
+        assertTrue(result.isStale());
+        assertTrue(result.getAgeSeconds() >= 600);
+        assertEquals(22.0, result.getTemperature());
+        verifyNoInteractions(weatherClient);
+        verify(weatherRepository, never()).save(any(WeatherEntity.class));
+        assertTrue(weatherCache.peek(city).isEmpty());
+    }
+
+    @Test
+    void getWeather_ShouldThrowServiceUnavailable_WhenCircuitIsOpenAndNoStoredReading() {
+        circuitBreakerRegistry.circuitBreaker(WeatherService.OPEN_WEATHER_CIRCUIT_BREAKER).transitionToOpenState();
+
+        WeatherException ex = assertThrows(WeatherException.class, () -> weatherService.getWeather("Florianopolis"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verifyNoInteractions(weatherClient);
+    }
+
+    @Test
+    void refreshWeather_ShouldNotSpendQuota_WhenCircuitIsOpen() {
+        circuitBreakerRegistry.circuitBreaker(WeatherService.OPEN_WEATHER_CIRCUIT_BREAKER).transitionToOpenState();
+        double available = quotaGovernor.availableTokens();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WeatherException.class,
+                    () -> weatherService.refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND));
+        }
+
+        assertEquals(available, quotaGovernor.availableTokens());
+        verifyNoInteractions(weatherClient);
+    }
+
+    @Test
+    void refreshWeather_ShouldReleaseCircuitPermission_WhenQuotaIsExhausted() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(WeatherService.OPEN_WEATHER_CIRCUIT_BREAKER);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        int permittedCalls = circuitBreaker.getCircuitBreakerConfig().getPermittedNumberOfCallsInHalfOpenState();
+        exhaustQuota();
+
+        for (int i = 0; i <= permittedCalls; i++) {
+            assertThrows(WeatherException.class,
+                    () -> weatherService.refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND));
+        }
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        verifyNoInteractions(weatherClient);
+    }
+
+    @Test
+    void getWeather_ShouldFailFast_AfterRepeatedUpstreamFailures() {
+        int minimumCalls = circuitBreakerRegistry.getDefaultConfig().getMinimumNumberOfCalls();
+        when(weatherClient.getWeather(anyString(), anyString(), anyString()))
+                .thenThrow(FeignException.ServiceUnavailable.class);
+
+        for (int i = 0; i < minimumCalls; i++) {
+            assertThrows(WeatherException.class, () -> weatherService.refreshWeather("Florianopolis"));
+        }
+        WeatherException ex = assertThrows(WeatherException.class, () -> weatherService.refreshWeather("Florianopolis"));
+
+        assertEquals(CircuitBreaker.State.OPEN,
+                circuitBreakerRegistry.circuitBreaker(WeatherService.OPEN_WEATHER_CIRCUIT_BREAKER).getState());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verify(weatherClient, times(minimumCalls)).getWeather(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void refreshWeather_ShouldServeCachedValue_WhenQuotaIsExhausted() {
+        String city = "Florianopolis";
+        WeatherDTO cachedDto = new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        weatherCache.put(city, cachedDto);
+        exhaustQuota();
+
+        WeatherDTO result = weatherService.refreshWeather(city);
+
+        assertSame(cachedDto, result);
+        verifyNoInteractions(weatherClient);
+    }
+
+    @Test
+    void refreshWeather_ShouldNotFallBack_ForBackgroundPriority() {
+        String city = "Florianopolis";
+        weatherCache.put(city, new WeatherDTO(city, "BR", 25.0, 70.0, 5.0, "Sunny", null));
+        exhaustQuota();
+
+        WeatherException ex = assertThrows(WeatherException.class,
+                () -> weatherService.refreshWeather(city, OpenWeatherQuotaGovernor.Priority.BACKGROUND));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verifyNoInteractions(weatherClient);
+        verify(weatherRepository, never()).findLatestByCityId(anyInt());
+    }
+
+    @Test
+    void getWeatherBulk_ShouldRejectTooManyCities() {
+        List<String> cities = IntStream.range(0, 101).mapToObj(i -> "City" + i).toList();
+
+        WeatherException ex = assertThrows(WeatherException.class, () -> weatherService.getWeatherBulk(cities));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
     @Test
     void formatCityName_ShouldThrow_WhenNullOrEmpty() {
         assertThrows(WeatherException.class, () -> {
@@ -151,4 +683,90 @@ public class WeatherServiceTest {
             ReflectionTestUtils.invokeMethod(weatherService, "formatCityName", "   ");
         });
     }
-}
\ No newline at end of file
+
+    private void exhaustQuota() {
+        while (quotaGovernor.tryAcquire(OpenWeatherQuotaGovernor.Priority.USER)) {
+            // consome todos os tokens disponíveis
+        }
+    }
+
+    @Test
+    void getWeatherByCity_ShouldNotQueryDatabase_ForUnknownCity() {
+        when(dictionary.findCity("Atlantis")).thenReturn(Optional.empty());
+
+        assertTrue(weatherService.getWeatherByCity(" atlantis ").isEmpty());
+        assertEquals(Optional.empty(), weatherService.getLatestObservation("Atlantis"));
+        verifyNoInteractions(weatherRepository);
+    }
+
+    @Test
+    void getWeather_ShouldAnswerRepeatedUnknownCityLocally_WithNotFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost/weather", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(weatherClient.getWeather(eq("Cidadeinexistente"), anyString(), anyString()))
+                .thenThrow(new FeignException.NotFound("city not found", request, null, null));
+
+        WeatherException first = assertThrows(WeatherException.class, () -> weatherService.getWeather("cidadeinexistente"));
+        WeatherException second = assertThrows(WeatherException.class, () -> weatherService.getWeather("CidadeInexistente"));
+        BulkWeatherDTO bulk = weatherService.getWeatherBulk(List.of("cidadeinexistente"));
+
+        assertEquals(HttpStatus.NOT_FOUND, first.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, second.getStatusCode());
+        assertEquals(404, bulk.getErrors().get("Cidadeinexistente").getStatus());
+        verify(weatherClient, times(1)).getWeather(anyString(), anyString(), anyString());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "weather.not-found").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getLatestWeatherByCityOrThrow_ShouldServeFromHotStore_AfterPersisting() {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO dto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", observedAt);
+        int id = cityId(dto.getCity());
+        when(mapper.toEntity(dto)).thenReturn(new WeatherEntity(id, 25.0, 70.0, 5.0, (short) 1, observedAt));
+        when(dictionary.city(id)).thenReturn(new WeatherDictionary.City(id, "Florianopolis", "BR"));
+        when(dictionary.description((short) 1)).thenReturn("Sunny");
+        WeatherWriteBehindBuffer writeBehindBuffer = new WeatherWriteBehindBuffer(weatherRepository, false, 10, 5,
+                Duration.ofSeconds(1), Duration.ZERO, new SimpleMeterRegistry());
+        WeatherService service = newService(writeBehindBuffer, new WeatherHotStore(null, dictionary, true, 4, 100, meterRegistry));
+
+        ReflectionTestUtils.invokeMethod(service, "persistWeatherData", dto);
+
+        WeatherDTO latest = service.getLatestWeatherByCityOrThrow("florianopolis");
+        assertEquals("Florianopolis", latest.getCity());
+        assertEquals("Sunny", latest.getDescription());
+        assertEquals(observedAt, latest.getDateTime());
+        assertEquals(1, service.getWeatherByCity("Florianopolis", observedAt, null).size());
+        verify(weatherRepository, never()).findLatestByCityId(anyInt());
+        verify(weatherRepository, never()).findByCityIdBetween(anyInt(), any(), any());
+    }
+
+    @Test
+    void persistWeatherData_ShouldForgetObservation_WhenWriteBehindFlushFails() {
+        LocalDateTime observedAt = LocalDateTime.of(2025, 11, 7, 10, 0);
+        WeatherDTO dto = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", observedAt);
+        int id = cityId(dto.getCity());
+        when(mapper.toEntity(dto)).thenAnswer(invocation -> new WeatherEntity(id, 25.0, 70.0, 5.0, (short) 1, observedAt));
+        when(weatherRepository.saveAll(anyList())).thenThrow(new RuntimeException("Database down"));
+        when(weatherRepository.save(any(WeatherEntity.class))).thenThrow(new RuntimeException("Database down"));
+        WeatherWriteBehindBuffer writeBehindBuffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 50,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+        WeatherHotStore hotStore = new WeatherHotStore(null, dictionary, true, 4, 100, meterRegistry);
+        WeatherService service = newService(writeBehindBuffer, hotStore);
+
+        try {
+            ReflectionTestUtils.invokeMethod(service, "persistWeatherData", dto);
+            writeBehindBuffer.flushAll();
+
+            assertTrue(hotStore.latest(id).isEmpty());
+            // a mesma observação volta a ser aceita para gravação
+            ReflectionTestUtils.invokeMethod(service, "persistWeatherData", dto);
+            assertEquals(1, writeBehindBuffer.pending());
+        } finally {
+            writeBehindBuffer.shutdown();
+        }
+    }
+
+    private static int cityId(String city) {
+        return city.trim().toLowerCase(Locale.ROOT).hashCode();
+    }
+}
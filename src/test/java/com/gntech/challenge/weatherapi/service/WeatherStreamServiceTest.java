@@ -0,0 +1,67 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.mapper.WeatherMapper;
+import com.gntech.challenge.weatherapi.repository.WeatherRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherStreamServiceTest {
+
+    @Mock private WeatherRepository weatherRepository;
+    @Mock private WeatherMapper mapper;
+    @Mock private WeatherDictionary dictionary;
+    @Mock private EntityManager entityManager;
+
+    @InjectMocks
+    private WeatherStreamService weatherStreamService;
+
+    @Test
+    void streamWeatherByCity_ShouldEmitEachRowAndDetachIt() {
+        WeatherEntity entity1 = new WeatherEntity(1, 25.0, 70.0, 5.0, (short) 1, null);
+        WeatherEntity entity2 = new WeatherEntity(1, 24.0, 72.0, 4.0, (short) 2, null);
+        WeatherDTO dto1 = new WeatherDTO("Florianopolis", "BR", 25.0, 70.0, 5.0, "Sunny", null);
+        WeatherDTO dto2 = new WeatherDTO("Florianopolis", "BR", 24.0, 72.0, 4.0, "Cloudy", null);
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        when(dictionary.findCity("Florianopolis")).thenReturn(Optional.of(new WeatherDictionary.City(1, "Florianopolis", "BR")));
+        when(weatherRepository.streamByCityId(1))
+                .thenReturn(Stream.of(entity1, entity2).onClose(() -> closed.set(true)));
+        when(mapper.toDTO(entity1)).thenReturn(dto1);
+        when(mapper.toDTO(entity2)).thenReturn(dto2);
+
+        List<WeatherDTO> received = new ArrayList<>();
+        long count = weatherStreamService.streamWeatherByCity(" Florianopolis ", received::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(dto1, dto2), received);
+        verify(entityManager).detach(entity1);
+        verify(entityManager).detach(entity2);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamWeatherByCity_ShouldNotQueryUnknownCity() {
+        when(dictionary.findCity("Atlantis")).thenReturn(Optional.empty());
+
+        long count = weatherStreamService.streamWeatherByCity("atlantis", dto -> { });
+
+        assertEquals(0, count);
+        verifyNoInteractions(weatherRepository);
+    }
+}
@@ -0,0 +1,199 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.dto.ErrorResponseDTO;
+import com.gntech.challenge.weatherapi.dto.WeatherDTO;
+import com.gntech.challenge.weatherapi.exception.WeatherException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherSubscriptionServiceTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2025, 11, 7, 10, 0);
+
+    @Mock private WeatherService weatherService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeatherCache weatherCache = new WeatherCache(true, 100, Duration.ofMinutes(5), meterRegistry);
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    private WeatherSubscriptionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(Runnable::run, 2);
+    }
+
+    @Test
+    void pollCycle_ShouldQueryEachCityOnce_AndFanOutToAllSubscribers() {
+        RecordingEmitter first = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+        RecordingEmitter second = (RecordingEmitter) service.subscribe(List.of("florianopolis"));
+        when(weatherService.refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND))
+                .thenReturn(reading(OBSERVED_AT, 25.0), reading(OBSERVED_AT, 25.0), reading(OBSERVED_AT.plusHours(1), 26.0));
+
+        service.pollCycle();
+        service.pollCycle();
+        service.pollCycle();
+
+        verify(weatherService, times(3)).refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND);
+        // a segunda consulta trouxe a mesma observação e não gerou evento
+        assertEquals(List.of(25.0, 26.0), first.temperatures());
+        assertEquals(List.of(25.0, 26.0), second.temperatures());
+    }
+
+    @Test
+    void pollCycle_ShouldServeCachedReading_UntilItExpiresBeforeNextCycle() {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+        weatherCache.put("Florianopolis", reading(OBSERVED_AT, 25.0));
+
+        service.pollCycle();
+
+        verifyNoInteractions(weatherService);
+        assertEquals(List.of(25.0), emitter.temperatures());
+    }
+
+    @Test
+    void pollCycle_ShouldSendErrorAndStopPolling_WhenCityIsRejected() {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(List.of("Cidadeinexistente"));
+        when(weatherService.refreshWeather("Cidadeinexistente", OpenWeatherQuotaGovernor.Priority.BACKGROUND))
+                .thenThrow(new WeatherException("Cidade 'Cidadeinexistente' não encontrada", HttpStatus.NOT_FOUND));
+
+        service.pollCycle();
+        service.pollCycle();
+
+        verify(weatherService, times(1)).refreshWeather("Cidadeinexistente", OpenWeatherQuotaGovernor.Priority.BACKGROUND);
+        assertEquals(List.of(404), emitter.errors.stream().map(ErrorResponseDTO::getStatus).toList());
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void pollCycle_ShouldKeepPolling_WhenUpstreamFailsWithServerError() {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+        when(weatherService.refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND))
+                .thenThrow(new WeatherException("Falha ao consultar a API OpenWeather", HttpStatus.BAD_GATEWAY));
+
+        service.pollCycle();
+        service.pollCycle();
+
+        verify(weatherService, times(2)).refreshWeather("Florianopolis", OpenWeatherQuotaGovernor.Priority.BACKGROUND);
+        assertTrue(emitter.errors.isEmpty());
+        assertFalse(emitter.completed);
+    }
+
+    @Test
+    void subscribe_ShouldSendLastKnownReading_ToNewSubscriber() {
+        service.subscribe(List.of("Florianopolis"));
+        service.publish("Florianopolis", reading(OBSERVED_AT, 25.0));
+
+        RecordingEmitter late = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+
+        assertEquals(List.of(25.0), late.temperatures());
+    }
+
+    @Test
+    void subscribe_ShouldRejectSubscribersAboveTheLimit() {
+        service.subscribe(List.of("Florianopolis"));
+        SseEmitter second = service.subscribe(List.of("Recife"));
+
+        WeatherException ex = assertThrows(WeatherException.class, () -> service.subscribe(List.of("Natal")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+
+        second.complete();
+        ((RecordingEmitter) second).completionCallback.run();
+        assertDoesNotThrow(() -> service.subscribe(List.of("Natal")));
+        assertEquals(1, meterRegistry.counter("weather.subscriptions.rejected").count());
+    }
+
+    @Test
+    void publish_ShouldKeepOnlyLatestReadingPerCity_ForSlowSubscriber() {
+        service = newService(pendingSends::add, 2);
+        RecordingEmitter slow = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+
+        service.publish("Florianopolis", reading(OBSERVED_AT, 25.0));
+        service.publish("Florianopolis", reading(OBSERVED_AT.plusHours(1), 26.0));
+        service.publish("Florianopolis", reading(OBSERVED_AT.plusHours(2), 27.0));
+        assertEquals(1, pendingSends.size());
+        pendingSends.forEach(Runnable::run);
+
+        assertEquals(List.of(27.0), slow.temperatures());
+        assertEquals(2, meterRegistry.counter("weather.subscriptions.coalesced").count());
+    }
+
+    @Test
+    void sendHeartbeats_ShouldSendCommentToIdleSubscribers() {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(List.of("Florianopolis"));
+
+        service.sendHeartbeats();
+
+        assertEquals(1, emitter.heartbeats);
+    }
+
+    private WeatherSubscriptionService newService(Executor sendExecutor, int maxSubscribers) {
+        return new WeatherSubscriptionService(weatherService, weatherCache, Runnable::run, sendExecutor, true, Duration.ofMinutes(1),
+                Duration.ofSeconds(15), Duration.ofMinutes(30), maxSubscribers, 5, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private static WeatherDTO reading(LocalDateTime observedAt, double temperature) {
+        return new WeatherDTO("Florianopolis", "BR", temperature, 70.0, 5.0, "céu limpo", observedAt);
+    }
+
+    /** Registra os eventos enviados em vez de escrevê-los em uma resposta HTTP. */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<WeatherDTO> events = new ArrayList<>();
+        private final List<ErrorResponseDTO> errors = new ArrayList<>();
+        private int heartbeats;
+        private boolean completed;
+        private Runnable completionCallback;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof WeatherDTO weather) {
+                    events.add(weather);
+                } else if (data.getData() instanceof ErrorResponseDTO error) {
+                    errors.add(error);
+                } else if (data.getData().toString().contains("heartbeat")) {
+                    heartbeats++;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            this.completionCallback = callback;
+            super.onCompletion(callback);
+        }
+
+        List<Double> temperatures() {
+            return events.stream().map(WeatherDTO::getTemperature).toList();
+        }
+    }
+}
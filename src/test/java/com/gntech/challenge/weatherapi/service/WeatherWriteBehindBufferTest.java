@@ -0,0 +1,136 @@
+package com.gntech.challenge.weatherapi.service;
+
+import com.gntech.challenge.weatherapi.entity.WeatherEntity;
+import com.gntech.challenge.weatherapi.repository.WeatherRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherWriteBehindBufferTest {
+
+    @Mock private WeatherRepository weatherRepository;
+
+    private WeatherWriteBehindBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void enqueue_ShouldReturnFalse_WhenDisabled() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, false, 10, 5,
+                Duration.ofSeconds(1), Duration.ZERO, new SimpleMeterRegistry());
+
+        assertFalse(buffer.enqueue(entity("Florianopolis")));
+        verifyNoInteractions(weatherRepository);
+    }
+
+    @Test
+    void enqueue_ShouldFlushBatch_WhenBatchSizeIsReached() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 3,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+
+        assertTrue(buffer.enqueue(entity("City1")));
+        assertTrue(buffer.enqueue(entity("City2")));
+        assertTrue(buffer.enqueue(entity("City3")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WeatherEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(weatherRepository, timeout(2000)).saveAll(captor.capture());
+        assertEquals(3, captor.getValue().size());
+    }
+
+    @Test
+    void enqueue_ShouldFlushOnInterval_WhenBatchIsNotFull() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 50,
+                Duration.ofMillis(100), Duration.ZERO, new SimpleMeterRegistry());
+
+        assertTrue(buffer.enqueue(entity("City1")));
+
+        verify(weatherRepository, timeout(2000)).saveAll(anyList());
+        assertEquals(0, buffer.pending());
+    }
+
+    @Test
+    void enqueue_ShouldReturnFalse_WhenQueueIsFull() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 2, 50,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+
+        assertTrue(buffer.enqueue(entity("City1")));
+        assertTrue(buffer.enqueue(entity("City2")));
+        assertFalse(buffer.enqueue(entity("City3")));
+        assertEquals(2, buffer.pending());
+    }
+
+    @Test
+    void shutdown_ShouldDrainPendingEntries() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 50,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+        buffer.enqueue(entity("City1"));
+        buffer.enqueue(entity("City2"));
+
+        buffer.shutdown();
+
+        verify(weatherRepository, times(1)).saveAll(anyList());
+        assertEquals(0, buffer.pending());
+    }
+
+    @Test
+    void enqueue_ShouldReturnFalse_AfterShutdown() {
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 50,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+        buffer.shutdown();
+
+        assertFalse(buffer.enqueue(entity("City1")));
+        assertEquals(0, buffer.pending());
+    }
+
+    @Test
+    void flushAll_ShouldSaveRowByRow_WhenBatchFails() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        buffer = new WeatherWriteBehindBuffer(weatherRepository, true, 10, 50,
+                Duration.ofMinutes(1), Duration.ZERO, meterRegistry);
+        WeatherEntity good = entity("City1");
+        WeatherEntity bad = entity("City2");
+        good.setId(1L);
+        buffer.enqueue(good);
+        buffer.enqueue(bad);
+        when(weatherRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("lote"));
+        when(weatherRepository.save(any(WeatherEntity.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == bad) {
+                throw new DataIntegrityViolationException("registro");
+            }
+            return invocation.getArgument(0);
+        });
+
+        buffer.flushAll();
+
+        verify(weatherRepository).save(good);
+        verify(weatherRepository).save(bad);
+        assertNull(good.getId());
+        assertEquals(1, meterRegistry.counter("weather.write-behind.flushed").count());
+        assertEquals(1, meterRegistry.counter("weather.write-behind.failed").count());
+        assertEquals(0, buffer.pending());
+    }
+
+    private WeatherEntity entity(String city) {
+        return new WeatherEntity(city.hashCode(), 20.0, 50.0, 3.0, (short) 1, null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.gntech.challenge.weatherapi.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+
+/**
+ * Banco dos testes de carga. Usa o PostgreSQL indicado em LOADTEST_DATASOURCE_URL quando definido;
+ * caso contrário sobe um PostgreSQL embarcado (binários do zonky, sem Docker) em uma porta livre.
+ * O PostgreSQL embarcado não pode ser executado pelo usuário root.
+ */
+public class LoadTestDatabase implements AutoCloseable {
+
+    private final EmbeddedPostgres embedded;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private LoadTestDatabase(EmbeddedPostgres embedded, String url, String username, String password) {
+        this.embedded = embedded;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static LoadTestDatabase start() throws IOException {
+        String url = System.getenv("LOADTEST_DATASOURCE_URL");
+        if (url != null && !url.isBlank()) {
+            return new LoadTestDatabase(null, url, env("LOADTEST_DATASOURCE_USERNAME", "postgres"),
+                    env("LOADTEST_DATASOURCE_PASSWORD", "postgres"));
+        }
+        EmbeddedPostgres embedded = EmbeddedPostgres.builder().start();
+        return new LoadTestDatabase(embedded, embedded.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.gntech.challenge.weatherapi.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servidor HTTP local que imita o endpoint /data/2.5/weather do OpenWeather, com latência configurável.
+ * Opcionalmente responde 500 em uma fração das chamadas ({@code errorRate}) e 404 para cidades fora de
+ * {@code cities} (conjunto vazio aceita qualquer cidade). Responde com gzip quando o cliente envia
+ * {@code Accept-Encoding: gzip}.
+ */
+public class OpenWeatherStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final double errorRate;
+    private final Set<String> cities;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public OpenWeatherStub(Duration latency) throws IOException {
+        this(latency, 0, Set.of());
+    }
+
+    public OpenWeatherStub(Duration latency, double errorRate, Set<String> cities) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.cities = cities.stream().map(String::toLowerCase).collect(Collectors.toUnmodifiableSet());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext("/data/2.5/weather", this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/data/2.5/weather";
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String city = queryParam(exchange.getRequestURI().getRawQuery(), "q");
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            respond(exchange, 500, "{\"cod\":\"500\",\"message\":\"internal error\"}");
+        } else if (!cities.isEmpty() && !cities.contains(city.toLowerCase())) {
+            respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}");
+        } else {
+            respond(exchange, 200, """
+                    {"name":"%s","dt":%d,"sys":{"country":"BR"},"main":{"temp":25.3,"humidity":70},
+                     "wind":{"speed":5.2},"weather":[{"description":"céu limpo"}]}
+                    """.formatted(city, System.currentTimeMillis() / 1000));
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                    return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}